@@ -1,6 +1,8 @@
 package net.mostlyoriginal.ns2d;
 
 import com.artemis.World;
+import net.mostlyoriginal.ns2d.api.TaskRunner;
+import net.mostlyoriginal.ns2d.system.active.FusedPhysicsSystem;
 
 /**
  * @author Daan van Yperen
@@ -14,4 +16,10 @@ public class G {
     public static World world;
     public static NsGame game;
     public static Settings settings = new Settings();
+
+    /** runs independent systems side by side, null to run all systems one by one in registration order. */
+    public static TaskRunner taskRunner;
+
+    /** how the physics systems run, takes effect on the next screen. */
+    public static FusedPhysicsSystem.Mode physicsMode = FusedPhysicsSystem.Mode.STEPS;
 }
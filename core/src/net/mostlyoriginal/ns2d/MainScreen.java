@@ -1,5 +1,6 @@
 package net.mostlyoriginal.ns2d;
 
+import com.artemis.EntitySystem;
 import com.artemis.World;
 import com.artemis.managers.GroupManager;
 import com.artemis.managers.TagManager;
@@ -7,23 +8,64 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.artemis.utils.Bag;
+import com.artemis.utils.ImmutableBag;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import net.mostlyoriginal.ns2d.api.SystemScheduler;
 import net.mostlyoriginal.ns2d.system.active.*;
 import net.mostlyoriginal.ns2d.system.collide.BulletCollisionSystem;
 import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
+import net.mostlyoriginal.ns2d.system.passive.BulletPoolSystem;
 import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
 import net.mostlyoriginal.ns2d.system.passive.CollisionSystem;
+import net.mostlyoriginal.ns2d.system.passive.InterpolationSystem;
 import net.mostlyoriginal.ns2d.system.passive.MapSystem;
+import net.mostlyoriginal.ns2d.system.passive.ProfilerSystem;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
+import net.mostlyoriginal.ns2d.system.passive.SpatialIndexSystem;
 import net.mostlyoriginal.ns2d.system.render.*;
 
 /**
+ * Simulation systems run at a fixed rate, render systems once per frame
+ * with positions interpolated between the last two simulation steps.
+ *
  * @author Daan van Yperen
  */
 public class MainScreen implements Screen {
 
+    public static final float SIM_STEP = 1 / 60f;
+    public static final float MAX_FRAME_DELTA = 1 / 15f;
+
     OrthographicCamera camera;
 
+    /** only logic systems, for simulating without a display. */
+    public final boolean headless;
+
+    private final Bag<EntitySystem> renderSystems = new Bag<EntitySystem>();
+    private final Bag<ProfilerSystem.Profile> renderProfiles = new Bag<ProfilerSystem.Profile>();
+    private ProfilerSystem profilerSystem;
+    private SystemScheduler scheduler;
+    private InterpolationSystem interpolationSystem;
+    private RenderPipelineSystem renderPipelineSystem;
+    // start with one step due, so entities exist before the first render.
+    private float accumulator = SIM_STEP;
+
     public MainScreen() {
+        this(false);
+    }
+
+    public MainScreen(boolean headless) {
+        this(headless, new RenderPipelineSystem());
+    }
+
+    /**
+     * @param headless never process systems that only draw. They are still registered,
+     *                 since the logic calls into some of them.
+     * @param renderPipelineSystem pipeline with the batches to draw into.
+     */
+    public MainScreen(boolean headless, RenderPipelineSystem renderPipelineSystem) {
+        this.headless = headless;
         G.screen = this;
 
         G.world = new World();
@@ -31,69 +73,98 @@ public class MainScreen implements Screen {
         G.world.setManager(new GroupManager());
         G.world.setManager(new TagManager());
 
-        // Active - Cleanup
-        G.world.setSystem(new TerminalSystem());
-        G.world.setSystem(new EntitySpawnerSystem());
-        G.world.setSystem(new ScriptSystem());
+        profilerSystem = G.world.setSystem(new ProfilerSystem());
+        if (G.taskRunner != null) {
+            scheduler = new SystemScheduler(G.taskRunner);
+        }
+
+        // Active - Cleanup. Bullets removed last step go back to their pools first.
+        setSystem(new BulletPoolSystem());
+        setSystem(new TerminalSystem());
+        setSystem(new EntitySpawnerSystem());
+        setSystem(new ScriptSystem());
 
         // Passive System, loader helpers.
-        G.world.setSystem(new AssetSystem());
-        G.world.setSystem(new MapSystem());
-        G.world.setSystem(new CameraSystem());
-        G.world.setSystem(new CollisionSystem());
-        G.world.setSystem(new ParticleSystem());
+        setSystem(new AssetSystem());
+        setSystem(new MapSystem());
+        setSystem(new CameraSystem());
+        this.renderPipelineSystem = setSystem(renderPipelineSystem);
+        setSystem(new CollisionSystem());
+        interpolationSystem = setSystem(new InterpolationSystem());
 
         // Active - Input/Logic
-        G.world.setSystem(new PlayerControlSystem());
-        G.world.setSystem(new SkulkControlSystem());
-        G.world.setSystem(new WeaponSystem());
+        setSystem(new FlowFieldSystem());
+        setSystem(new PlayerControlSystem());
+        setSystem(new SkulkControlSystem());
+        setSystem(new WeaponSystem());
 
         // Active - Interactions
-        G.world.setSystem(new BuildableSystem());
-        G.world.setSystem(new CombatSystem());
-        G.world.setSystem(new HarvesterSystem());
+        setSystem(new BuildableSystem());
+        setSystem(new CombatSystem());
+        setSystem(new HarvesterSystem());
 
         // Active - Physics. Order is important! Alter velocity, then constrain.
-        G.world.setSystem(new PhysicsSystem());
-        G.world.setSystem(new GravitySystem());
-        G.world.setSystem(new HomingSystem());
-        G.world.setSystem(new InbetweenSystem());
-        G.world.setSystem(new MapCollisionSystem());
-        G.world.setSystem(new AfterPhysicsSystem());
+        setSystem(new PhysicsSystem());
+        if (G.physicsMode == FusedPhysicsSystem.Mode.STEPS) {
+            setSystem(new GravitySystem());
+            setSystem(new HomingSystem());
+            setSystem(new InbetweenSystem());
+            setSystem(new MapCollisionSystem());
+            setSystem(new AfterPhysicsSystem());
+        } else {
+            // same math in one pass per entity, the step systems are only called into.
+            G.world.setSystem(new GravitySystem(), true);
+            G.world.setSystem(new HomingSystem(), true);
+            G.world.setSystem(new InbetweenSystem(), true);
+            G.world.setSystem(new MapCollisionSystem(), true);
+            G.world.setSystem(new AfterPhysicsSystem(), true);
+            setSystem(new FusedPhysicsSystem(G.physicsMode == FusedPhysicsSystem.Mode.VERIFY));
+        }
+        // cosmetic particles move on their own, with the same math.
+        setSystem(new ParticleSystem());
 
         // Active - Fixed movement
-        G.world.setSystem(new AttachmentSystem());
-        G.world.setSystem(new MouseCursorSystem());
-        G.world.setSystem(new AimSystem());
+        setSystem(new AttachmentSystem());
+        setSystem(new MouseCursorSystem());
+        setSystem(new AimSystem());
 
         // Active - Post Movement Calculations.
-        G.world.setSystem(new WallSensorSystem());
-
-        G.world.setSystem(new BulletCollisionSystem());
+        setSystem(new WallSensorSystem());
 
+        // Active - Collision. Index after movement, before the first query.
+        setSystem(new SpatialIndexSystem());
+        setSystem(new BulletCollisionSystem());
 
-        // Active - Camera
-        G.world.setSystem(new CameraFocusSystem());
-        G.world.setSystem(new CameraShakeSystem());
 
-        // Active - Render
-        G.world.setSystem(new MapRenderSystem());
-        G.world.setSystem(new CostRenderSystem());
-        G.world.setSystem(new HealthRenderSystem());
-        G.world.setSystem(new AnimRenderSystem());
-        G.world.setSystem(new MapRenderSystemInFront());
-        G.world.setSystem(new DialogRenderSystem());
-        G.world.setSystem(new UIRenderSystem());
-        G.world.setSystem(new UIAlertActiveSpawnerSystem());
-        G.world.setSystem(new UIAlertBuildableUnderAttack());
+        // Render - Camera, once per frame.
+        setRenderSystem(new CameraFocusSystem());
+        setRenderSystem(new CameraShakeSystem());
 
-        G.world.setSystem(new UIAlertTechpointUnderAttack());
-        G.world.setSystem(new UIStageRenderSystem());
-        G.world.setSystem(new UIStopwatchRenderSytem());
+        // Render - World camera first, then GUI, so each shared batch begins once.
+        setRenderSystem(new MapRenderSystem());
+        setRenderSystem(new CostRenderSystem());
+        setRenderSystem(new HealthRenderSystem());
+        setRenderSystem(new AnimRenderSystem());
+        setRenderSystem(new MapRenderSystemInFront());
+        setRenderSystem(new DialogRenderSystem());
+        setRenderSystem(new UIAlertActiveSpawnerSystem());
+        setRenderSystem(new UIAlertBuildableUnderAttack());
+        setRenderSystem(new UIAlertTechpointUnderAttack());
 
+        setRenderSystem(new UIRenderSystem());
+        setRenderSystem(new UIStageRenderSystem());
+        setRenderSystem(new UIStopwatchRenderSytem());
+        setRenderSystem(new UIPerformanceRenderSystem());
 
+        setSystem(new DirectorSystem());
 
-        G.world.setSystem(new DirectorSystem());
+        if (scheduler != null) {
+            final Array<EntitySystem> stages = scheduler.build();
+            for (int i = 0; i < stages.size; i++) {
+                G.world.setSystem(stages.get(i));
+            }
+        }
+        G.world.setSystem(profilerSystem.markEnd());
 
 
         G.world.initialize();
@@ -105,8 +176,67 @@ public class MainScreen implements Screen {
         Gdx.gl.glClearColor(0, 0, 0, 1);
   		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
-        G.world.setDelta(MathUtils.clamp(delta,0, 1/15f));
-        G.world.process();
+        final float frameDelta = MathUtils.clamp(delta, 0, MAX_FRAME_DELTA);
+        simulate(frameDelta);
+
+        interpolationSystem.interpolate(accumulator / SIM_STEP);
+        G.world.setDelta(frameDelta);
+        for (int i = 0, s = renderSystems.size(); s > i; i++) {
+            profilerSystem.start(renderProfiles.get(i));
+            renderSystems.get(i).process();
+        }
+        profilerSystem.stop();
+        renderPipelineSystem.endFrame();
+        interpolationSystem.restore();
+    }
+
+    /**
+     * @return systems run once per frame, in drawing order. Empty when headless.
+     */
+    public ImmutableBag<EntitySystem> getRenderSystems() {
+        return renderSystems;
+    }
+
+    /**
+     * Advance the simulation in fixed steps, carrying the remainder over to the next call.
+     */
+    public void simulate(float delta) {
+        accumulator += delta;
+        G.world.setDelta(SIM_STEP);
+        while (accumulator >= SIM_STEP) {
+            accumulator -= SIM_STEP;
+            interpolationSystem.capture();
+            G.world.process();
+        }
+    }
+
+    /**
+     * Register a system, timed by the profiler when the world processes it.
+     * <p/>
+     * With a task runner, the system is handed to the scheduler instead,
+     * which processes it as part of a stage.
+     */
+    private <T extends EntitySystem> T setSystem(T system) {
+        if (system.isPassive()) {
+            return G.world.setSystem(system);
+        }
+        if (scheduler != null) {
+            scheduler.add(system, profilerSystem.timed(system));
+            return G.world.setSystem(system, true);
+        }
+        G.world.setSystem(profilerSystem.markBefore(system));
+        return G.world.setSystem(system);
+    }
+
+    /**
+     * Register a system that runs once per frame instead of per simulation step.
+     */
+    private void setRenderSystem(EntitySystem system) {
+        G.world.setSystem(system, true);
+        if (!headless) {
+            renderSystems.add(system);
+            renderProfiles.add(profilerSystem.profile(system));
+        }
     }
 
     @Override
@@ -1,12 +1,27 @@
 package net.mostlyoriginal.ns2d;
 
 import com.badlogic.gdx.Game;
+import net.mostlyoriginal.ns2d.api.TaskRunner;
 
 public class NsGame extends Game {
 
+    private final TaskRunner taskRunner;
+
+    public NsGame() {
+        this(null);
+    }
+
+    /**
+     * @param taskRunner runs independent systems side by side, null to run them one by one.
+     */
+    public NsGame(TaskRunner taskRunner) {
+        this.taskRunner = taskRunner;
+    }
+
 	@Override
 	public void create () {
         G.game = this;
+        G.taskRunner = taskRunner;
         restart();
     }
 
@@ -0,0 +1,15 @@
+package net.mostlyoriginal.ns2d.api;
+
+/**
+ * Render system that skips what the camera can't see.
+ * <p/>
+ * Counts cover the last time the system was processed, and are picked up by the profiler.
+ */
+public interface CullingSystem {
+
+    /** @return things drawn. */
+    int getDrawn();
+
+    /** @return things skipped for being out of view. */
+    int getCulled();
+}
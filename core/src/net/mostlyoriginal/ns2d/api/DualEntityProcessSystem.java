@@ -1,44 +1,115 @@
 package net.mostlyoriginal.ns2d.api;
 
 import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.EntitySystem;
 import com.artemis.managers.GroupManager;
 import com.artemis.utils.Bag;
 import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.utils.Array;
+import net.mostlyoriginal.ns2d.component.Bounds;
+import net.mostlyoriginal.ns2d.component.Pos;
+
+import java.util.Comparator;
 
 /**
+ * Process all pairs of entities between two groups.
+ * <p/>
+ * With sweep and prune enabled both groups are sorted along the x axis by their
+ * {@link Bounds}, and only pairs with overlapping x intervals are processed.
+ * Entities without {@link Pos} or {@link Bounds} are skipped in that mode.
+ *
  * @author Daan van Yperen
  */
 public abstract class DualEntityProcessSystem extends EntitySystem {
 
     private final String groupA;
     private final String groupB;
+    private final boolean sweepAndPrune;
 
     private ImmutableBag<Entity> groupEntitiesA;
     private ImmutableBag<Entity> groupEntitiesB;
 
     protected Bag<Entity> deleteLater = new Bag<>();
 
+    private ComponentMapper<Pos> pm;
+    private ComponentMapper<Bounds> bm;
+
+    private final Axis axisA = new Axis();
+    private final Axis axisB = new Axis();
+
+    /** pairs passed to processEntity last frame. */
+    public int pairsTested;
+    /** pairs a full nested loop would have processed last frame. */
+    public int pairsTotal;
+
     public DualEntityProcessSystem(String groupA, String groupB) {
+        this(groupA, groupB, false);
+    }
+
+    /**
+     * @param sweepAndPrune only process pairs whose bounds overlap on the x axis.
+     */
+    public DualEntityProcessSystem(String groupA, String groupB, boolean sweepAndPrune) {
         super(Aspect.getEmpty());
         this.groupA = groupA;
         this.groupB = groupB;
+        this.sweepAndPrune = sweepAndPrune;
     }
 
     @Override
     protected void processEntities(ImmutableBag<Entity> entities) {
+        pairsTested = 0;
+        pairsTotal = groupEntitiesA.size() * groupEntitiesB.size();
+
+        if (sweepAndPrune) {
+            sweepAndPrune();
+            return;
+        }
+
         for (int a = groupEntitiesA.size()-1; a >= 0; a--) {
             for (int b = groupEntitiesB.size()-1; b >= 0; b--) {
                 final Entity entityA = groupEntitiesA.get(a);
                 final Entity entityB = groupEntitiesB.get(b);
                 if ( entityA != null && entityB != null ) {
+                    pairsTested++;
                     processEntity(entityA, entityB);
                 }
             }
         }
     }
 
+    private void sweepAndPrune() {
+        axisA.build(groupEntitiesA, pm, bm);
+        axisB.build(groupEntitiesB, pm, bm);
+
+        final Array<Entry> a = axisA.entries;
+        final Array<Entry> b = axisB.entries;
+        final int sizeA = axisA.size;
+        final int sizeB = axisB.size;
+
+        // whichever interval starts first is tested against everything starting within it.
+        int i = 0, j = 0;
+        while (i < sizeA && j < sizeB) {
+            final Entry entryA = a.get(i);
+            final Entry entryB = b.get(j);
+            if (entryA.min <= entryB.min) {
+                for (int k = j; k < sizeB && b.get(k).min <= entryA.max; k++) {
+                    pairsTested++;
+                    processEntity(entryA.entity, b.get(k).entity);
+                }
+                i++;
+            } else {
+                for (int k = i; k < sizeA && a.get(k).min <= entryB.max; k++) {
+                    pairsTested++;
+                    processEntity(a.get(k).entity, entryB.entity);
+                }
+                j++;
+            }
+        }
+    }
+
     @Override
     protected boolean checkProcessing() {
         return true;
@@ -48,8 +119,56 @@ public abstract class DualEntityProcessSystem extends EntitySystem {
     protected void initialize() {
         groupEntitiesA = world.getManager(GroupManager.class).getEntities(groupA);
         groupEntitiesB = world.getManager(GroupManager.class).getEntities(groupB);
+        pm = world.getMapper(Pos.class);
+        bm = world.getMapper(Bounds.class);
     }
 
     protected abstract void processEntity(Entity entityA, Entity entityB);
 
+    private static class Entry {
+        public Entity entity;
+        public float min;
+        public float max;
+    }
+
+    /**
+     * Group members sorted by the start of their x interval. Entries are reused between frames.
+     */
+    private static class Axis {
+
+        private static final Comparator<Entry> BY_MIN = new Comparator<Entry>() {
+            @Override
+            public int compare(Entry e1, Entry e2) {
+                return Float.compare(e1.min, e2.min);
+            }
+        };
+
+        private final Array<Entry> entries = new Array<Entry>(Entry.class);
+        private int size;
+
+        public void build(ImmutableBag<Entity> group, ComponentMapper<Pos> pm, ComponentMapper<Bounds> bm) {
+            size = 0;
+            for (int i = 0, s = group.size(); s > i; i++) {
+                final Entity e = group.get(i);
+                if (e == null || !pm.has(e) || !bm.has(e)) continue;
+
+                if (size == entries.size) {
+                    entries.add(new Entry());
+                }
+                final Entry entry = entries.get(size++);
+                final float x = pm.get(e).x;
+                final Bounds bounds = bm.get(e);
+                entry.entity = e;
+                entry.min = x + bounds.x1;
+                entry.max = x + bounds.x2;
+            }
+
+            // drop references from a previous, larger frame before sorting the live range.
+            for (int i = size; i < entries.size; i++) {
+                entries.get(i).entity = null;
+                entries.get(i).min = Float.MAX_VALUE;
+            }
+            entries.sort(BY_MIN);
+        }
+    }
 }
@@ -0,0 +1,126 @@
+package net.mostlyoriginal.ns2d.api;
+
+import com.badlogic.gdx.utils.Array;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs task batches on a work stealing pool, one pool thread per core.
+ * <p/>
+ * The calling thread runs the first task itself, also from outside the pool, while the
+ * others are handed to pool threads. Batches may be started from within a task, like a
+ * parallel system running inside a scheduler stage. Wrappers are reused between batches,
+ * so a steady frame does not allocate.
+ * <p/>
+ * Not available on GWT, excluded in NsGame.gwt.xml.
+ */
+public class ForkJoinTaskRunner implements TaskRunner {
+
+    private final ForkJoinPool pool;
+
+    // batches per thread, one for each level of nesting.
+    private final ThreadLocal<Batches> batches = new ThreadLocal<Batches>() {
+        @Override
+        protected Batches initialValue() {
+            return new Batches();
+        }
+    };
+
+    public ForkJoinTaskRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ForkJoinTaskRunner(int parallelism) {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @Override
+    public void runAll(Array<Runnable> tasks) {
+        if (tasks.size <= 1) {
+            TaskRunner.SERIAL.runAll(tasks);
+            return;
+        }
+
+        final Batches nested = batches.get();
+        if (nested.depth == nested.stack.size) {
+            nested.stack.add(new Batch());
+        }
+        final Batch batch = nested.stack.get(nested.depth++);
+        try {
+            batch.tasks = tasks;
+            batch.reinitialize();
+            if (ForkJoinTask.inForkJoinPool()) {
+                batch.invoke();
+            } else {
+                batch.runFrom(pool);
+            }
+        } finally {
+            batch.tasks = null;
+            nested.depth--;
+        }
+    }
+
+    private static class Batches {
+        private final Array<Batch> stack = new Array<Batch>();
+        private int depth;
+    }
+
+    @SuppressWarnings("serial")
+    private static class Batch extends RecursiveAction {
+
+        private Array<Runnable> tasks;
+        private final Array<Task> forked = new Array<Task>();
+
+        /**
+         * Run from a thread outside the pool, handing all but the first task to the pool.
+         */
+        public void runFrom(ForkJoinPool pool) {
+            prepare();
+            for (int i = 1; i < tasks.size; i++) {
+                pool.execute(forked.get(i));
+            }
+            runFirstAndJoin();
+        }
+
+        @Override
+        protected void compute() {
+            prepare();
+            for (int i = 1; i < tasks.size; i++) {
+                forked.get(i).fork();
+            }
+            runFirstAndJoin();
+        }
+
+        private void prepare() {
+            while (forked.size < tasks.size) {
+                forked.add(new Task());
+            }
+            for (int i = 1; i < tasks.size; i++) {
+                final Task task = forked.get(i);
+                task.runnable = tasks.get(i);
+                task.reinitialize();
+            }
+        }
+
+        private void runFirstAndJoin() {
+            tasks.get(0).run();
+            for (int i = tasks.size - 1; i >= 1; i--) {
+                forked.get(i).join();
+                forked.get(i).runnable = null;
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class Task extends RecursiveAction {
+
+        private Runnable runnable;
+
+        @Override
+        protected void compute() {
+            runnable.run();
+        }
+    }
+}
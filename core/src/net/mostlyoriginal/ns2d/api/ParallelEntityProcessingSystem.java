@@ -0,0 +1,118 @@
+package net.mostlyoriginal.ns2d.api;
+
+import com.artemis.Aspect;
+import com.artemis.Entity;
+import com.artemis.EntitySystem;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.utils.Array;
+import net.mostlyoriginal.ns2d.G;
+
+/**
+ * Process entities in chunks, side by side on a {@link TaskRunner}.
+ * <p/>
+ * Only for systems that write nothing but the entity being processed. Each chunk
+ * gets its own worker state for scratch objects, since fields are shared between
+ * threads. Small groups are processed on the calling thread.
+ *
+ * @param <T> worker state, see {@link #newWorkerState()}.
+ */
+public abstract class ParallelEntityProcessingSystem<T> extends EntitySystem {
+
+    /** below this many entities, processing stays on the calling thread. */
+    public static final int SERIAL_THRESHOLD = 1024;
+    /** smallest number of entities handed to a worker. */
+    public static final int MIN_CHUNK_SIZE = 512;
+    public static final int MAX_CHUNKS = 64;
+
+    private TaskRunner runner;
+    private boolean runnerSet;
+
+    private final Array<Chunk> chunks = new Array<Chunk>();
+    private final Array<Runnable> tasks = new Array<Runnable>();
+    private ImmutableBag<Entity> processing;
+
+    public ParallelEntityProcessingSystem(Aspect aspect) {
+        super(aspect);
+    }
+
+    /**
+     * @param runner null to always process on the calling thread. Defaults to {@link G#taskRunner}.
+     */
+    public void setTaskRunner(TaskRunner runner) {
+        this.runner = runner;
+        this.runnerSet = true;
+    }
+
+    @Override
+    protected void initialize() {
+        if (!runnerSet) {
+            runner = G.taskRunner;
+        }
+    }
+
+    /**
+     * @return scratch state for one worker, or null if process needs none.
+     */
+    protected T newWorkerState() {
+        return null;
+    }
+
+    protected abstract void process(Entity e, T state);
+
+    @Override
+    protected final void processEntities(ImmutableBag<Entity> entities) {
+        final int size = entities.size();
+        processing = entities;
+
+        if (runner == null || size < SERIAL_THRESHOLD) {
+            chunk(0).set(0, size).run();
+        } else {
+            final int count = Math.min(MAX_CHUNKS, (size + MIN_CHUNK_SIZE - 1) / MIN_CHUNK_SIZE);
+            tasks.clear();
+            for (int i = 0; i < count; i++) {
+                tasks.add(chunk(i).set(size * i / count, size * (i + 1) / count));
+            }
+            runner.runAll(tasks);
+            tasks.clear();
+        }
+
+        processing = null;
+    }
+
+    private Chunk chunk(int index) {
+        while (chunks.size <= index) {
+            chunks.add(new Chunk(newWorkerState()));
+        }
+        return chunks.get(index);
+    }
+
+    @Override
+    protected boolean checkProcessing() {
+        return true;
+    }
+
+    private class Chunk implements Runnable {
+
+        private final T state;
+        private int from;
+        private int to;
+
+        public Chunk(T state) {
+            this.state = state;
+        }
+
+        public Chunk set(int from, int to) {
+            this.from = from;
+            this.to = to;
+            return this;
+        }
+
+        @Override
+        public void run() {
+            final ImmutableBag<Entity> entities = processing;
+            for (int i = from; i < to; i++) {
+                process(entities.get(i), state);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package net.mostlyoriginal.ns2d.api;
+
+/**
+ * System that declares what it reads and writes, so it may run alongside others.
+ * <p/>
+ * Systems that do not implement this are treated as structural, and always run alone.
+ */
+public interface ScheduledSystem {
+    void declareAccess(SystemAccess access);
+}
@@ -0,0 +1,71 @@
+package net.mostlyoriginal.ns2d.api;
+
+import com.badlogic.gdx.utils.ObjectSet;
+
+/**
+ * What a system touches while processing, so the {@link SystemScheduler} knows what may run side by side.
+ * <p/>
+ * Keys are component types, or any other class standing in for shared state, like a passive system.
+ * State that is only safe to touch from the main thread, like Gdx.input or the shared random of
+ * {@link com.badlogic.gdx.math.MathUtils}, can't be shared by key; declare {@link #mainThread()} instead.
+ */
+public class SystemAccess {
+
+    private final ObjectSet<Class<?>> reads = new ObjectSet<Class<?>>();
+    private final ObjectSet<Class<?>> writes = new ObjectSet<Class<?>>();
+    private boolean exclusive;
+    private boolean mainThread;
+
+    public SystemAccess reads(Class<?>... types) {
+        for (Class<?> type : types) {
+            reads.add(type);
+        }
+        return this;
+    }
+
+    public SystemAccess writes(Class<?>... types) {
+        for (Class<?> type : types) {
+            writes.add(type);
+        }
+        return this;
+    }
+
+    /**
+     * Creates or deletes entities, or changes their composition. The system runs alone,
+     * and the world flushes those changes before anything after it runs.
+     */
+    public SystemAccess structural() {
+        exclusive = true;
+        return this;
+    }
+
+    /**
+     * Touches state only the main thread may. The system runs alone, on the thread processing the world.
+     */
+    public SystemAccess mainThread() {
+        mainThread = true;
+        return this;
+    }
+
+    public boolean isExclusive() {
+        return exclusive;
+    }
+
+    /**
+     * @return TRUE when the two may not run at the same time, or change order.
+     */
+    public boolean conflicts(SystemAccess other) {
+        return exclusive || other.exclusive ||
+                mainThread || other.mainThread ||
+                overlaps(writes, other.writes) ||
+                overlaps(writes, other.reads) ||
+                overlaps(reads, other.writes);
+    }
+
+    private static boolean overlaps(ObjectSet<Class<?>> a, ObjectSet<Class<?>> b) {
+        for (Class<?> type : a) {
+            if (b.contains(type)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,92 @@
+package net.mostlyoriginal.ns2d.api;
+
+import com.artemis.EntitySystem;
+import com.artemis.systems.VoidEntitySystem;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Groups systems into stages of systems that may run at the same time.
+ * <p/>
+ * A system is placed in the stage after the last earlier system it conflicts with,
+ * so any two conflicting systems keep their registration order. Systems within a stage
+ * are handed to a {@link TaskRunner} together, a system alone in its stage runs on the
+ * calling thread. Stages are registered with the world as
+ * regular systems, so the world flushes entity changes between them.
+ */
+public class SystemScheduler {
+
+    private final TaskRunner runner;
+
+    private final Array<SystemAccess> access = new Array<SystemAccess>();
+    private final Array<Runnable> tasks = new Array<Runnable>();
+
+    public SystemScheduler(TaskRunner runner) {
+        this.runner = runner;
+    }
+
+    /**
+     * @param process processes the system, registered passive so the world leaves it to us.
+     */
+    public void add(EntitySystem system, Runnable process) {
+        final SystemAccess systemAccess = new SystemAccess();
+        if (system instanceof ScheduledSystem) {
+            ((ScheduledSystem) system).declareAccess(systemAccess);
+        } else {
+            systemAccess.structural();
+        }
+        access.add(systemAccess);
+        tasks.add(process);
+    }
+
+    /**
+     * @return stages in the order to register them.
+     */
+    public Array<EntitySystem> build() {
+        final IntArray stageOf = new IntArray();
+        int stageCount = 0;
+
+        for (int i = 0; i < access.size; i++) {
+            int stage = 0;
+            for (int j = 0; j < i; j++) {
+                if (access.get(i).conflicts(access.get(j))) {
+                    stage = Math.max(stage, stageOf.get(j) + 1);
+                }
+            }
+            stageOf.add(stage);
+            stageCount = Math.max(stageCount, stage + 1);
+        }
+
+        final Array<EntitySystem> stages = new Array<EntitySystem>();
+        for (int stage = 0; stage < stageCount; stage++) {
+            final Array<Runnable> members = new Array<Runnable>();
+            for (int i = 0; i < tasks.size; i++) {
+                if (stageOf.get(i) == stage) {
+                    members.add(tasks.get(i));
+                }
+            }
+            stages.add(new Stage(runner, members));
+        }
+        return stages;
+    }
+
+    private static class Stage extends VoidEntitySystem {
+
+        private final TaskRunner runner;
+        private final Array<Runnable> members;
+
+        public Stage(TaskRunner runner, Array<Runnable> members) {
+            this.runner = runner;
+            this.members = members;
+        }
+
+        @Override
+        protected void processSystem() {
+            if (members.size == 1) {
+                members.get(0).run();
+            } else {
+                runner.runAll(members);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package net.mostlyoriginal.ns2d.api;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Runs batches of independent tasks, possibly at the same time.
+ */
+public interface TaskRunner {
+
+    /**
+     * Run all tasks, returning once every one of them has completed.
+     */
+    void runAll(Array<Runnable> tasks);
+
+    /**
+     * Runs tasks one after the other on the calling thread.
+     */
+    public static final TaskRunner SERIAL = new TaskRunner() {
+        @Override
+        public void runAll(Array<Runnable> tasks) {
+            for (int i = 0; i < tasks.size; i++) {
+                tasks.get(i).run();
+            }
+        }
+    };
+}
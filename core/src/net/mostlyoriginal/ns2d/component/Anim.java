@@ -2,11 +2,13 @@ package net.mostlyoriginal.ns2d.component;
 
 import com.artemis.Component;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.Pool;
+import net.mostlyoriginal.ns2d.util.SpriteRegistry;
 
 /**
  * @author Daan van Yperen
  */
-public class Anim extends Component {
+public class Anim extends Component implements Pool.Poolable {
 
     public static final int ORIGIN_AUTO = -999999;
     public boolean flippedX; // flip animation, should not affect rotation.
@@ -23,7 +25,12 @@ public class Anim extends Component {
         DEFAULT_LAYER;
     };
 
+    /** sprite to show, by its string id. */
     public String id;
+    /** handle of the sprite, see {@link net.mostlyoriginal.ns2d.system.passive.AssetSystem#resolve(Anim)}. */
+    public int sprite = SpriteRegistry.NONE;
+    /** id the handle was resolved from. */
+    public String spriteId;
     public Layer layer = Layer.DEFAULT_LAYER;
 
     public float speed = 1;
@@ -48,4 +55,22 @@ public class Anim extends Component {
         this.oy = oy;
     }
 
+    public Anim() {
+    }
+
+    @Override
+    public void reset() {
+        flippedX = false;
+        id = null;
+        sprite = SpriteRegistry.NONE;
+        spriteId = null;
+        layer = Layer.DEFAULT_LAYER;
+        speed = 1;
+        age = 0;
+        scale = 1;
+        rotation = 0;
+        ox = ORIGIN_AUTO;
+        oy = ORIGIN_AUTO;
+        color.set(1, 1, 1, 1);
+    }
 }
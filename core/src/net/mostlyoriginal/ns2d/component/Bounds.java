@@ -2,16 +2,20 @@ package net.mostlyoriginal.ns2d.component;
 
 import com.artemis.Component;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Pool;
 
 /**
  * @author Daan van Yperen
  */
-public class Bounds extends Component {
+public class Bounds extends Component implements Pool.Poolable {
     public int x1;
     public int y1;
     public int x2;
     public int y2;
 
+    public Bounds() {
+    }
+
     public Bounds(final int width, final int height) {
         this.x1=this.y1=0;
         this.x2=width;
@@ -33,4 +37,12 @@ public class Bounds extends Component {
 
     public int cx() { return x1 + (x2-x1)/2; }
     public int cy() { return y1 + (y2-y1)/2; }
+
+    @Override
+    public void reset() {
+        x1 = 0;
+        y1 = 0;
+        x2 = 0;
+        y2 = 0;
+    }
 }
@@ -0,0 +1,15 @@
+package net.mostlyoriginal.ns2d.component;
+
+import com.artemis.Component;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Sweep map collision along the whole move, instead of probing the destination.
+ * For fast movers that would otherwise tunnel through thin walls.
+ */
+public class ContinuousCollision extends Component implements Pool.Poolable {
+
+    @Override
+    public void reset() {
+    }
+}
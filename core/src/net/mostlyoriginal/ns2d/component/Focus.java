@@ -10,4 +10,8 @@ import com.artemis.Entity;
  */
 public class Focus extends Component {
     public Entity entity;
+
+    // seconds to stick with a victim before looking for a closer one.
+    public float retargetInterval = 0.25f;
+    public float retargetCooldown = 0;
 }
@@ -1,11 +1,12 @@
 package net.mostlyoriginal.ns2d.component;
 
 import com.artemis.Component;
+import com.badlogic.gdx.utils.Pool;
 
 /**
  * @author Daan van Yperen
  */
-public class Gravity extends Component {
+public class Gravity extends Component implements Pool.Poolable {
     public static final float DEFAULT_Y_GRAVITY = -9.8f;
     public float x = 0;
     public float y = DEFAULT_Y_GRAVITY;
@@ -17,4 +18,11 @@ public class Gravity extends Component {
         this.y = y;
 
     }
+
+    @Override
+    public void reset() {
+        x = 0;
+        y = DEFAULT_Y_GRAVITY;
+        enabled = true;
+    }
 }
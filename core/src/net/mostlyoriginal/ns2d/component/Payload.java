@@ -1,11 +1,12 @@
 package net.mostlyoriginal.ns2d.component;
 
 import com.artemis.Component;
+import com.badlogic.gdx.utils.Pool;
 
 /**
  * @author Daan van Yperen
  */
-public class Payload extends Component {
+public class Payload extends Component implements Pool.Poolable {
 
 
     public static enum DamageType {
@@ -24,14 +25,33 @@ public class Payload extends Component {
 
     public Payload clone()
     {
-        final Payload p = new Payload();
-        p.type = type;
-        p.radius = radius;
-        p.minDamage = minDamage;
-        p.maxDamage = maxDamage;
-        p.triggerGroup = triggerGroup;
-        p.maxLifetime = maxLifetime;
-        p.explodeSfxId = explodeSfxId;
-        return p;
+        return new Payload().set(this);
+    }
+
+    /**
+     * Copy settings from another payload. Age is left alone.
+     */
+    public Payload set(Payload p)
+    {
+        type = p.type;
+        radius = p.radius;
+        minDamage = p.minDamage;
+        maxDamage = p.maxDamage;
+        triggerGroup = p.triggerGroup;
+        maxLifetime = p.maxLifetime;
+        explodeSfxId = p.explodeSfxId;
+        return this;
+    }
+
+    @Override
+    public void reset() {
+        type = DamageType.EXPLOSIVE;
+        radius = 0;
+        minDamage = 1;
+        maxDamage = 1;
+        triggerGroup = null;
+        maxLifetime = 0;
+        explodeSfxId = null;
+        age = 0;
     }
 }
@@ -1,15 +1,25 @@
 package net.mostlyoriginal.ns2d.component;
 
 import com.artemis.Component;
+import com.badlogic.gdx.utils.Pool;
 
 /**
  * @author Daan van Yperen
  */
-public class Physics extends Component {
+public class Physics extends Component implements Pool.Poolable {
     public float vx; // velocityX
     public float vy; // velocityY
     public float vr; // rotational velocity.
     public float friction = 4f;
 
     public float bounce = 0f;
+
+    @Override
+    public void reset() {
+        vx = 0;
+        vy = 0;
+        vr = 0;
+        friction = 4f;
+        bounce = 0f;
+    }
 }
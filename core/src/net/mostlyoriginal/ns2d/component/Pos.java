@@ -1,11 +1,12 @@
 package net.mostlyoriginal.ns2d.component;
 
 import com.artemis.Component;
+import com.badlogic.gdx.utils.Pool;
 
 /**
  * @author Daan van Yperen
  */
-public class Pos extends Component {
+public class Pos extends Component implements Pool.Poolable {
     public float x;
     public float y;
 
@@ -13,4 +14,13 @@ public class Pos extends Component {
         this.x = x;
         this.y = y;
     }
+
+    public Pos() {
+    }
+
+    @Override
+    public void reset() {
+        x = 0;
+        y = 0;
+    }
 }
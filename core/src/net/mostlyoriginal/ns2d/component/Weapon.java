@@ -1,6 +1,7 @@
 package net.mostlyoriginal.ns2d.component;
 
 import com.artemis.Component;
+import net.mostlyoriginal.ns2d.util.SpriteRegistry;
 
 /**
  * @author Daan van Yperen
@@ -18,6 +19,9 @@ public class Weapon extends Component {
     public boolean firing = false;
 
     public String bulletAnimId = "bullet";
+    // sprite handle of bulletAnimId, and the id it was resolved from.
+    public int bulletSprite = SpriteRegistry.NONE;
+    public String bulletSpriteId;
     public float recoil = 20;
     public float bulletFriction = 0.01f;
     public float bulletBounce = 0;
@@ -4,7 +4,9 @@ import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.annotations.Wire;
-import com.artemis.systems.EntityProcessingSystem;
+import net.mostlyoriginal.ns2d.api.ParallelEntityProcessingSystem;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
 import net.mostlyoriginal.ns2d.component.Anim;
 import net.mostlyoriginal.ns2d.component.Physics;
 import net.mostlyoriginal.ns2d.component.Pos;
@@ -17,9 +19,7 @@ import net.mostlyoriginal.ns2d.component.WallSensor;
  */
 
 @Wire
-public class AfterPhysicsSystem extends EntityProcessingSystem {
-
-    MapCollisionSystem mapCollisionSystem;
+public class AfterPhysicsSystem extends ParallelEntityProcessingSystem<Void> implements ScheduledSystem {
 
     private ComponentMapper<Physics> ym;
     private ComponentMapper<Pos> pm;
@@ -32,39 +32,51 @@ public class AfterPhysicsSystem extends EntityProcessingSystem {
     }
 
     @Override
-    protected void process(Entity e) {
-        final Physics physics = ym.get(e);
-        final Pos pos = pm.get(e);
+    protected void process(Entity e, Void state) {
+        integrate(ym.get(e), pm.get(e), am.getSafe(e), wm.getSafe(e), world.delta);
+    }
 
-        pos.x += physics.vx * world.getDelta();
-        pos.y += physics.vy * world.getDelta();
+    /**
+     * Move, rotate and slow down over delta seconds.
+     *
+     * @param anim null if none.
+     * @param wallSensor null if none.
+     */
+    public static void integrate(final Physics physics, final Pos pos, final Anim anim, final WallSensor wallSensor, final float delta) {
+        pos.x += physics.vx * delta;
+        pos.y += physics.vy * delta;
 
-        if ( physics.vr != 0 && am.has(e))
+        if ( physics.vr != 0 && anim != null)
         {
-            am.get(e).rotation += physics.vr * world.delta;
+            anim.rotation += physics.vr * delta;
         }
         
         if (physics.friction != 0) {
-            float adjustedFriction = physics.friction * (wm.has(e) && !wm.get(e).onFloor ? 0.25f : 1 );
+            float adjustedFriction = physics.friction * (wallSensor != null && !wallSensor.onFloor ? 0.25f : 1 );
 
             if (Math.abs(physics.vx) > 0.005f) {
-                physics.vx = physics.vx - (physics.vx * world.delta * adjustedFriction);
+                physics.vx = physics.vx - (physics.vx * delta * adjustedFriction);
             } else {
                 physics.vx = 0;
             }
 
             if (Math.abs(physics.vr) > 0.005f) {
-                physics.vr = physics.vr - (physics.vr * world.delta * adjustedFriction);
+                physics.vr = physics.vr - (physics.vr * delta * adjustedFriction);
             } else {
                 physics.vr = 0;
             }
 
             if (Math.abs(physics.vy) > 0.005f) {
-                physics.vy = physics.vy - (physics.vy * world.delta * adjustedFriction);
+                physics.vy = physics.vy - (physics.vy * delta * adjustedFriction);
             } else {
                 physics.vy = 0;
             }
         }
        
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.reads(WallSensor.class).writes(Pos.class, Physics.class, Anim.class);
+    }
 }
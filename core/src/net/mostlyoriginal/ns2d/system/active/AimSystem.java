@@ -6,6 +6,8 @@ import com.artemis.Entity;
 import com.artemis.annotations.Wire;
 import com.artemis.systems.EntityProcessingSystem;
 import com.badlogic.gdx.math.Vector2;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
 import net.mostlyoriginal.ns2d.component.Aim;
 import net.mostlyoriginal.ns2d.component.Anim;
 import net.mostlyoriginal.ns2d.component.Pos;
@@ -17,7 +19,7 @@ import net.mostlyoriginal.ns2d.util.EntityUtil;
  * @author Daan van Yperen
  */
 @Wire
-public class AimSystem extends EntityProcessingSystem {
+public class AimSystem extends EntityProcessingSystem implements ScheduledSystem {
 
     private ComponentMapper<Aim> am;
     private ComponentMapper<Anim> nm;
@@ -46,4 +48,9 @@ public class AimSystem extends EntityProcessingSystem {
     public void aimAt(Entity e, Entity at) {
         nm.get(e).rotation = EntityUtil.angle(e, at);
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.reads(Pos.class).writes(Aim.class, Anim.class, EntityUtil.class);
+    }
 }
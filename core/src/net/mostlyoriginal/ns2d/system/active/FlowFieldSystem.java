@@ -0,0 +1,170 @@
+package net.mostlyoriginal.ns2d.system.active;
+
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.annotations.Wire;
+import com.artemis.managers.GroupManager;
+import com.artemis.systems.VoidEntitySystem;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.math.Vector2;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
+import net.mostlyoriginal.ns2d.component.Bounds;
+import net.mostlyoriginal.ns2d.component.Health;
+import net.mostlyoriginal.ns2d.component.Pos;
+import net.mostlyoriginal.ns2d.system.passive.MapSystem;
+import net.mostlyoriginal.ns2d.util.MapMask;
+
+/**
+ * Shared path towards the closest player friend, for alien hordes.
+ * <p/>
+ * Breadth first search over the open tiles of the solid mask, seeded from every
+ * player-friend with health. The search is spread over several frames and swapped
+ * in once complete, so the cost stays flat no matter how many aliens follow it.
+ * It leads to whichever friend is fewest tiles away, not to any particular one.
+ */
+@Wire
+public class FlowFieldSystem extends VoidEntitySystem implements ScheduledSystem {
+
+    public static final float REBUILD_INTERVAL = 0.25f;
+    public static final int TILES_PER_FRAME = 1024;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private MapSystem mapSystem;
+    private GroupManager groupManager;
+
+    private ComponentMapper<Pos> pm;
+    private ComponentMapper<Bounds> bm;
+    private ComponentMapper<Health> hm;
+
+    private ImmutableBag<Entity> playerFriends;
+    private MapMask solidMask;
+    private int width;
+    private int height;
+
+    // steps to the closest seed per tile, the completed field and the one being searched.
+    private int[] distance;
+    private int[] building;
+
+    private int[] queue;
+    private int head;
+    private int tail;
+    private boolean searching;
+    private float cooldown;
+
+    @Override
+    protected void initialize() {
+        playerFriends = groupManager.getEntities("player-friend");
+        solidMask = mapSystem.getMask("solid");
+        width = mapSystem.getWidth();
+        height = mapSystem.getHeight();
+
+        distance = new int[width * height];
+        building = new int[width * height];
+        queue = new int[width * height];
+        for (int i = 0; i < distance.length; i++) {
+            distance[i] = UNREACHABLE;
+        }
+    }
+
+    @Override
+    protected void processSystem() {
+        cooldown -= world.delta;
+        if (!searching && cooldown <= 0) {
+            cooldown = REBUILD_INTERVAL;
+            startSearch();
+        }
+
+        if (searching) {
+            continueSearch(TILES_PER_FRAME);
+        }
+    }
+
+    private void startSearch() {
+        for (int i = 0; i < building.length; i++) {
+            building[i] = UNREACHABLE;
+        }
+        head = tail = 0;
+        searching = true;
+
+        for (int i = 0; playerFriends.size() > i; i++) {
+            final Entity e = playerFriends.get(i);
+            if (e == null || !hm.has(e) || !pm.has(e)) continue;
+
+            final Pos pos = pm.get(e);
+            final Bounds bounds = bm.getSafe(e);
+            final int tx = MapMask.toGrid(bounds != null ? pos.x + bounds.cx() : pos.x);
+            final int ty = MapMask.toGrid(bounds != null ? pos.y + bounds.cy() : pos.y);
+            if (tx >= 0 && ty >= 0 && tx < width && ty < height && building[ty * width + tx] == UNREACHABLE) {
+                building[ty * width + tx] = 0;
+                queue[tail++] = ty * width + tx;
+            }
+        }
+    }
+
+    private void continueSearch(int budget) {
+        while (head < tail && budget-- > 0) {
+            final int index = queue[head++];
+            final int tx = index % width;
+            final int ty = index / width;
+            final int next = building[index] + 1;
+
+            visit(tx - 1, ty, next);
+            visit(tx + 1, ty, next);
+            visit(tx, ty - 1, next);
+            visit(tx, ty + 1, next);
+        }
+
+        if (head == tail) {
+            // done, swap in the new field.
+            final int[] completed = building;
+            building = distance;
+            distance = completed;
+            searching = false;
+        }
+    }
+
+    private void visit(int tx, int ty, int steps) {
+        if (tx < 0 || ty < 0 || tx >= width || ty >= height) return;
+        final int index = ty * width + tx;
+        if (building[index] == UNREACHABLE && !solidMask.atGrid(tx, ty)) {
+            building[index] = steps;
+            queue[tail++] = index;
+        }
+    }
+
+    /**
+     * Direction of the next tile towards the closest player friend.
+     *
+     * @param x PIXEL coordinates
+     * @param y PIXEL coordinates
+     * @param out set to a unit step along one axis.
+     * @return FALSE when there is no path, or we are already there. out is left untouched.
+     */
+    public boolean direction(final float x, final float y, final Vector2 out) {
+        final int tx = MapMask.toGrid(x);
+        final int ty = MapMask.toGrid(y);
+        final int steps = stepsAt(tx, ty);
+        if (steps == UNREACHABLE || steps == 0) return false;
+
+        int bestX = 0, bestY = 0, best = steps;
+        if (stepsAt(tx - 1, ty) < best) { best = stepsAt(tx - 1, ty); bestX = -1; bestY = 0; }
+        if (stepsAt(tx + 1, ty) < best) { best = stepsAt(tx + 1, ty); bestX = 1; bestY = 0; }
+        if (stepsAt(tx, ty - 1) < best) { best = stepsAt(tx, ty - 1); bestX = 0; bestY = -1; }
+        if (stepsAt(tx, ty + 1) < best) { bestX = 0; bestY = 1; }
+
+        if (bestX == 0 && bestY == 0) return false;
+        out.set(bestX, bestY);
+        return true;
+    }
+
+    private int stepsAt(int tx, int ty) {
+        if (tx < 0 || ty < 0 || tx >= width || ty >= height) return UNREACHABLE;
+        return distance[ty * width + tx];
+    }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.reads(Pos.class, Bounds.class, Health.class, MapSystem.class).writes(FlowFieldSystem.class);
+    }
+}
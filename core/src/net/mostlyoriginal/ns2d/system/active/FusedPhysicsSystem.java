@@ -0,0 +1,289 @@
+package net.mostlyoriginal.ns2d.system.active;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.EntitySystem;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Bits;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
+import net.mostlyoriginal.ns2d.component.*;
+import net.mostlyoriginal.ns2d.system.passive.MapSystem;
+
+/**
+ * Gravity, homing, map constraint and integration in a single pass per entity.
+ * <p/>
+ * Replaces {@link GravitySystem}, {@link HomingSystem}, {@link MapCollisionSystem} and
+ * {@link AfterPhysicsSystem}, with the same results as running them one after the other.
+ * Homing reads other entities, so it is worked out for all homers up front, before
+ * {@link InbetweenSystem} moves its trackers and before anything is integrated.
+ * <p/>
+ * Those systems must still be registered (passive), they provide the math.
+ */
+@Wire
+public class FusedPhysicsSystem extends EntitySystem implements ScheduledSystem {
+
+    private static final String TAG = "FusedPhysicsSystem";
+    private static final int REPORTED_MISMATCHES = 10;
+
+    public enum Mode {
+        /** one system per step, in registration order. */
+        STEPS,
+        /** one pass per entity. */
+        FUSED,
+        /** run both every step, report differences, then continue with the result of the steps. */
+        VERIFY
+    }
+
+    private GravitySystem gravitySystem;
+    private HomingSystem homingSystem;
+    private InbetweenSystem inbetweenSystem;
+    private MapCollisionSystem mapCollisionSystem;
+    private AfterPhysicsSystem afterPhysicsSystem;
+
+    private ComponentMapper<Physics> ym;
+    private ComponentMapper<Pos> pm;
+    private ComponentMapper<Gravity> gm;
+    private ComponentMapper<Homing> hm;
+    private ComponentMapper<Bounds> bm;
+    private ComponentMapper<ContinuousCollision> cm;
+    private ComponentMapper<Anim> am;
+    private ComponentMapper<WallSensor> wm;
+
+    private final boolean verify;
+
+    // homing velocity per entity id, worked out before the pass.
+    private final Bits steering = new Bits();
+    private float[] steer = new float[128 * 2];
+    private final Vector2 tmp = new Vector2();
+
+    private final Snapshot before = new Snapshot();
+    private final Snapshot fused = new Snapshot();
+
+    /** steps where the fused pass differed from the steps, in verify mode. */
+    public int mismatchedSteps;
+    /** entities that differed, in verify mode. */
+    public int mismatches;
+
+    public FusedPhysicsSystem(boolean verify) {
+        super(Aspect.getAspectForAll(Physics.class));
+        this.verify = verify;
+    }
+
+    @Override
+    protected void processEntities(ImmutableBag<Entity> entities) {
+        if (!verify) {
+            fuse(entities);
+            return;
+        }
+
+        before.save(entities);
+        fuse(entities);
+        fused.save(entities);
+
+        before.load(entities);
+        gravitySystem.process();
+        homingSystem.process();
+        inbetweenSystem.process();
+        mapCollisionSystem.process();
+        afterPhysicsSystem.process();
+
+        compare(entities);
+    }
+
+    private void fuse(ImmutableBag<Entity> entities) {
+        final float delta = world.delta;
+
+        final ImmutableBag<Entity> homers = homingSystem.getActives();
+        for (int i = 0, s = homers.size(); s > i; i++) {
+            final Entity e = homers.get(i);
+            if (homingSystem.steer(hm.get(e), pm.get(e), tmp)) {
+                final int index = e.getId() * 2;
+                if (index + 1 >= steer.length) {
+                    grow(index + 2);
+                }
+                steer[index] = tmp.x;
+                steer[index + 1] = tmp.y;
+                steering.set(e.getId());
+            }
+        }
+
+        inbetweenSystem.process();
+
+        for (int i = 0, s = entities.size(); s > i; i++) {
+            final Entity e = entities.get(i);
+            final Physics physics = ym.get(e);
+
+            final Gravity gravity = gm.getSafe(e);
+            if (gravity != null) {
+                GravitySystem.apply(physics, gravity, delta);
+            }
+
+            final Pos pos = pm.getSafe(e);
+            if (pos == null) continue;
+
+            if (steering.getAndClear(e.getId())) {
+                physics.vx = steer[e.getId() * 2];
+                physics.vy = steer[e.getId() * 2 + 1];
+            }
+
+            final Bounds bounds = bm.getSafe(e);
+            if (bounds != null) {
+                mapCollisionSystem.constrain(physics, pos, bounds, cm.has(e));
+            }
+
+            AfterPhysicsSystem.integrate(physics, pos, am.getSafe(e), wm.getSafe(e), delta);
+        }
+    }
+
+    private void compare(ImmutableBag<Entity> entities) {
+        final int previous = mismatches;
+        final ImmutableBag<Entity> trackers = inbetweenSystem.getActives();
+        compareEach(entities);
+        compareEach(trackers);
+        if (mismatches > previous) {
+            mismatchedSteps++;
+        }
+    }
+
+    private void compareEach(ImmutableBag<Entity> entities) {
+        for (int i = 0, s = entities.size(); s > i; i++) {
+            final Entity e = entities.get(i);
+            if (!fused.matches(e)) {
+                if (mismatches++ < REPORTED_MISMATCHES) {
+                    Gdx.app.error(TAG, "entity " + e.getId() + " differs, fused " + fused.describe(e) + ", steps " + describe(e));
+                }
+            }
+        }
+    }
+
+    private String describe(Entity e) {
+        final Pos pos = pm.getSafe(e);
+        final Physics physics = ym.getSafe(e);
+        return "pos " + (pos != null ? pos.x + "," + pos.y : "-") +
+                " v " + (physics != null ? physics.vx + "," + physics.vy + "," + physics.vr : "-");
+    }
+
+    private void grow(final int minimum) {
+        final float[] newSteer = new float[Math.max(minimum, steer.length * 2)];
+        System.arraycopy(steer, 0, newSteer, 0, steer.length);
+        steer = newSteer;
+    }
+
+    @Override
+    protected boolean checkProcessing() {
+        return true;
+    }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.reads(Gravity.class, Inbetween.class, Bounds.class, ContinuousCollision.class, WallSensor.class, MapSystem.class)
+                .writes(Pos.class, Physics.class, Homing.class, Anim.class);
+    }
+
+    /**
+     * Everything the physics steps write, per entity id.
+     */
+    private class Snapshot {
+
+        private static final int STRIDE = 6;
+
+        private float[] values = new float[128 * STRIDE];
+        private Entity[] targets = new Entity[128];
+
+        public void save(ImmutableBag<Entity> entities) {
+            save(entities, true);
+            save(inbetweenSystem.getActives(), false);
+        }
+
+        public void load(ImmutableBag<Entity> entities) {
+            load(entities, true);
+            load(inbetweenSystem.getActives(), false);
+        }
+
+        private void save(ImmutableBag<Entity> entities, boolean moving) {
+            for (int i = 0, s = entities.size(); s > i; i++) {
+                final Entity e = entities.get(i);
+                final int index = e.getId() * STRIDE;
+                if (e.getId() >= targets.length) {
+                    grow(e.getId() + 1);
+                }
+                final Pos pos = pm.getSafe(e);
+                if (pos != null) {
+                    values[index] = pos.x;
+                    values[index + 1] = pos.y;
+                }
+                if (!moving) continue;
+
+                final Physics physics = ym.get(e);
+                values[index + 2] = physics.vx;
+                values[index + 3] = physics.vy;
+                values[index + 4] = physics.vr;
+                final Anim anim = am.getSafe(e);
+                if (anim != null) values[index + 5] = anim.rotation;
+                final Homing homing = hm.getSafe(e);
+                targets[e.getId()] = homing != null ? homing.target : null;
+            }
+        }
+
+        private void load(ImmutableBag<Entity> entities, boolean moving) {
+            for (int i = 0, s = entities.size(); s > i; i++) {
+                final Entity e = entities.get(i);
+                final int index = e.getId() * STRIDE;
+                final Pos pos = pm.getSafe(e);
+                if (pos != null) {
+                    pos.x = values[index];
+                    pos.y = values[index + 1];
+                }
+                if (!moving) continue;
+
+                final Physics physics = ym.get(e);
+                physics.vx = values[index + 2];
+                physics.vy = values[index + 3];
+                physics.vr = values[index + 4];
+                final Anim anim = am.getSafe(e);
+                if (anim != null) anim.rotation = values[index + 5];
+                final Homing homing = hm.getSafe(e);
+                if (homing != null) homing.target = targets[e.getId()];
+                targets[e.getId()] = null;
+            }
+        }
+
+        /**
+         * @return TRUE if the entity is in the same state as when saved.
+         */
+        public boolean matches(Entity e) {
+            final int index = e.getId() * STRIDE;
+            final Pos pos = pm.getSafe(e);
+            if (pos != null && (pos.x != values[index] || pos.y != values[index + 1])) return false;
+
+            final Physics physics = ym.getSafe(e);
+            if (physics == null) return true;
+            if (physics.vx != values[index + 2] || physics.vy != values[index + 3] || physics.vr != values[index + 4]) return false;
+            final Anim anim = am.getSafe(e);
+            if (anim != null && anim.rotation != values[index + 5]) return false;
+            final Homing homing = hm.getSafe(e);
+            return homing == null || homing.target == targets[e.getId()];
+        }
+
+        public String describe(Entity e) {
+            final int index = e.getId() * STRIDE;
+            return "pos " + values[index] + "," + values[index + 1] +
+                    " v " + values[index + 2] + "," + values[index + 3] + "," + values[index + 4];
+        }
+
+        private void grow(final int minimum) {
+            final int capacity = Math.max(minimum, targets.length * 2);
+            final float[] newValues = new float[capacity * STRIDE];
+            System.arraycopy(values, 0, newValues, 0, values.length);
+            values = newValues;
+            final Entity[] newTargets = new Entity[capacity];
+            System.arraycopy(targets, 0, newTargets, 0, targets.length);
+            targets = newTargets;
+        }
+    }
+}
@@ -4,7 +4,9 @@ import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.annotations.Wire;
-import com.artemis.systems.EntityProcessingSystem;
+import net.mostlyoriginal.ns2d.api.ParallelEntityProcessingSystem;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
 import net.mostlyoriginal.ns2d.component.Gravity;
 import net.mostlyoriginal.ns2d.component.Physics;
 
@@ -12,7 +14,7 @@ import net.mostlyoriginal.ns2d.component.Physics;
  * @author Daan van Yperen
  */
 @Wire
-public class GravitySystem extends EntityProcessingSystem {
+public class GravitySystem extends ParallelEntityProcessingSystem<Void> implements ScheduledSystem {
 
     public static final int GRAVITY_FACTOR = 50;
 
@@ -24,13 +26,22 @@ public class GravitySystem extends EntityProcessingSystem {
     }
 
     @Override
-    protected void process(Entity e) {
-        final Physics physics = pm.get(e);
-        final Gravity gravity = gm.get(e);
+    protected void process(Entity e, Void state) {
+        apply(pm.get(e), gm.get(e), world.delta);
+    }
 
+    /**
+     * Accelerate by gravity over delta seconds.
+     */
+    public static void apply(final Physics physics, final Gravity gravity, final float delta) {
         if (gravity.enabled) {
-            physics.vy += gravity.y * GRAVITY_FACTOR * world.delta;
-            physics.vx += gravity.x * GRAVITY_FACTOR * world.delta;
+            physics.vy += gravity.y * GRAVITY_FACTOR * delta;
+            physics.vx += gravity.x * GRAVITY_FACTOR * delta;
         }
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.reads(Gravity.class).writes(Physics.class);
+    }
 }
@@ -7,6 +7,8 @@ import com.artemis.annotations.Wire;
 import com.artemis.managers.GroupManager;
 import com.artemis.systems.EntityProcessingSystem;
 import com.badlogic.gdx.math.MathUtils;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
 import net.mostlyoriginal.ns2d.component.Buildable;
 import net.mostlyoriginal.ns2d.component.Harvester;
 import net.mostlyoriginal.ns2d.component.Wallet;
@@ -18,7 +20,7 @@ import net.mostlyoriginal.ns2d.system.render.DialogRenderSystem;
  * @author Daan van Yperen
  */
 @Wire
-public class HarvesterSystem extends EntityProcessingSystem {
+public class HarvesterSystem extends EntityProcessingSystem implements ScheduledSystem {
 
     private ComponentMapper<Harvester> hm;
     private ComponentMapper<Buildable> bm;
@@ -63,4 +65,10 @@ public class HarvesterSystem extends EntityProcessingSystem {
             unbuiltCount++;
         }
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        // random cooldown and dialog.
+        access.reads(Harvester.class, Buildable.class).mainThread();
+    }
 }
@@ -4,18 +4,19 @@ import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.annotations.Wire;
-import com.artemis.systems.EntityProcessingSystem;
 import com.badlogic.gdx.math.Vector2;
+import net.mostlyoriginal.ns2d.api.ParallelEntityProcessingSystem;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
 import net.mostlyoriginal.ns2d.component.Homing;
 import net.mostlyoriginal.ns2d.component.Physics;
 import net.mostlyoriginal.ns2d.component.Pos;
-import net.mostlyoriginal.ns2d.util.EntityUtil;
 
 /**
  * @author Daan van Yperen
  */
 @Wire
-public class HomingSystem extends EntityProcessingSystem {
+public class HomingSystem extends ParallelEntityProcessingSystem<Vector2> implements ScheduledSystem {
 
     ComponentMapper<Homing> hm;
     ComponentMapper<Pos> pm;
@@ -27,29 +28,46 @@ public class HomingSystem extends EntityProcessingSystem {
         super(Aspect.getAspectForAll(Homing.class, Pos.class, Physics.class));
     }
 
-
-    Vector2 tmp = new Vector2();
+    @Override
+    protected Vector2 newWorkerState() {
+        return new Vector2();
+    }
 
     @Override
-    protected void process(Entity e) {
+    protected void process(Entity e, Vector2 tmp) {
+        if (steer(hm.get(e), pm.get(e), tmp)) {
+            Physics physics = ym.get(e);
+            physics.vx = tmp.x;
+            physics.vy = tmp.y;
+        }
+    }
 
-        Homing homing = hm.get(e);
+    /**
+     * Work out the velocity towards the target. Forgets targets that are gone.
+     *
+     * @param velocity receives the new velocity.
+     * @return TRUE when the velocity should be replaced, FALSE when the target is out of reach.
+     */
+    public boolean steer(final Homing homing, final Pos myPos, final Vector2 velocity) {
 
         if (homing.target != null && homing.target.isActive()) {
-            float distance = EntityUtil.distance(e, homing.target);
-            if (distance < homing.maxDistance) {
+            Pos tPos = pm.get(homing.target);
 
-                Pos myPos = pm.get(e);
-                Pos tPos = pm.get(homing.target);
+            float distance = velocity.set(myPos.x, myPos.y).dst(tPos.x, tPos.y);
+            if (distance < homing.maxDistance) {
 
                 // vector of required traversal
-                tmp.set(tPos.x, tPos.y).sub(myPos.x, myPos.y).scl(homing.speedFactor).clamp(0, homing.maxVelocity);
-
-                Physics physics = ym.get(e);
-                physics.vx = tmp.x;
-                physics.vy = tmp.y;
+                velocity.set(tPos.x, tPos.y).sub(myPos.x, myPos.y).scl(homing.speedFactor).clamp(0, homing.maxVelocity);
+                return true;
             }
 
         } else homing.target = null;
+
+        return false;
+    }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.reads(Pos.class).writes(Homing.class, Physics.class);
     }
 }
@@ -4,8 +4,10 @@ import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.annotations.Wire;
-import com.artemis.systems.EntityProcessingSystem;
 import com.badlogic.gdx.math.Vector2;
+import net.mostlyoriginal.ns2d.api.ParallelEntityProcessingSystem;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
 import net.mostlyoriginal.ns2d.component.Inbetween;
 import net.mostlyoriginal.ns2d.component.Pos;
 
@@ -13,7 +15,7 @@ import net.mostlyoriginal.ns2d.component.Pos;
  * @author Daan van Yperen
  */
 @Wire
-public class InbetweenSystem extends EntityProcessingSystem {
+public class InbetweenSystem extends ParallelEntityProcessingSystem<Vector2> implements ScheduledSystem {
 
     ComponentMapper<Inbetween> dm;
     ComponentMapper<Pos> pm;
@@ -22,11 +24,13 @@ public class InbetweenSystem extends EntityProcessingSystem {
         super(Aspect.getAspectForAll(Inbetween.class, Pos.class));
     }
 
-
-    Vector2 tmp = new Vector2();
+    @Override
+    protected Vector2 newWorkerState() {
+        return new Vector2();
+    }
 
     @Override
-    protected void process(Entity e) {
+    protected void process(Entity e, Vector2 tmp) {
         final Inbetween inbetween = dm.get(e);
         Pos pos1 = pm.get(inbetween.a);
         Pos pos2 = pm.get(inbetween.b);
@@ -37,4 +41,9 @@ public class InbetweenSystem extends EntityProcessingSystem {
         pos.x = tmp.x;
         pos.y = tmp.y;
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.reads(Inbetween.class).writes(Pos.class);
+    }
 }
@@ -5,9 +5,10 @@ import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.annotations.Wire;
 import com.artemis.systems.EntityProcessingSystem;
+import net.mostlyoriginal.ns2d.G;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
 import net.mostlyoriginal.ns2d.component.*;
-import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
-import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
 import net.mostlyoriginal.ns2d.system.passive.MapSystem;
 import net.mostlyoriginal.ns2d.util.MapMask;
 
@@ -19,13 +20,11 @@ import net.mostlyoriginal.ns2d.util.MapMask;
  * @author Daan van Yperen
  */
 @Wire
-public class MapCollisionSystem extends EntityProcessingSystem {
+public class MapCollisionSystem extends EntityProcessingSystem implements ScheduledSystem {
 
     private static boolean DEBUG = false;
 
     private MapSystem mapSystem;
-    private AssetSystem assetSystem;
-    private CameraSystem cameraSystem;
 
     private boolean initialized;
     private MapMask solidMask;
@@ -33,6 +32,9 @@ public class MapCollisionSystem extends EntityProcessingSystem {
     private ComponentMapper<Physics> ym;
     private ComponentMapper<Pos> pm;
     private ComponentMapper<Bounds> bm;
+    private ComponentMapper<ContinuousCollision> cm;
+
+    private final MapMask.Impact impact = new MapMask.Impact();
 
     public MapCollisionSystem() {
         super(Aspect.getAspectForAll(Physics.class, Pos.class, Bounds.class));
@@ -52,16 +54,35 @@ public class MapCollisionSystem extends EntityProcessingSystem {
 
     @Override
     protected void process(Entity e) {
-        final Physics physics = ym.get(e);
-        final Pos pos = pm.get(e);
-        final Bounds bounds = bm.get(e);
+        constrain(ym.get(e), pm.get(e), bm.get(e), cm.has(e));
+    }
+
+    /**
+     * Stop (or bounce) velocity that would move into the map over the next step.
+     *
+     * @param continuous sweep the whole move, see {@link ContinuousCollision}.
+     */
+    public void constrain(final Physics physics, final Pos pos, final Bounds bounds, final boolean continuous) {
+        begin();
 
         //  no math required here.
         if (physics.vx != 0 || physics.vy != 0) {
 
+            if (continuous) {
+                sweep(physics, pos, bounds);
+                return;
+            }
+
             float px = pos.x + physics.vx * world.delta;
             float py = pos.y + physics.vy * world.delta;
 
+            // nothing solid anywhere near the move? then none of the probes can hit.
+            if (!DEBUG && !solidMask.anyInScreenRect(
+                    Math.min(pos.x, px) + bounds.x1 - 1, Math.min(pos.y, py) + bounds.y1 - 1,
+                    Math.max(pos.x, px) + bounds.x2 + 1, Math.max(pos.y, py) + bounds.y2 + 1)) {
+                return;
+            }
+
             if ((physics.vx > 0 && collides(px + bounds.x2, py + bounds.y1 + (bounds.y2 - bounds.y1) * 0.5f)) ||
                     (physics.vx < 0 && collides(px + bounds.x1, py + bounds.y1 + (bounds.y2 - bounds.y1) * 0.5f))) {
                 physics.vx = physics.bounce > 0 ? -physics.vx * physics.bounce : 0;
@@ -77,6 +98,33 @@ public class MapCollisionSystem extends EntityProcessingSystem {
 
     }
 
+    /**
+     * Swept collision, so fast movers can't skip over walls.
+     * <p/>
+     * On impact the entity is placed flush against the tile and that axis is stopped (or bounced),
+     * then the other axis is swept from there. Free movement is left to {@link AfterPhysicsSystem}.
+     */
+    private void sweep(final Physics physics, final Pos pos, final Bounds bounds) {
+        float dx = physics.vx * world.delta;
+        float dy = physics.vy * world.delta;
+
+        for (int pass = 0; pass < 2 && (dx != 0 || dy != 0); pass++) {
+            if (solidMask.sweep(pos.x + bounds.x1, pos.y + bounds.y1, pos.x + bounds.x2, pos.y + bounds.y2, dx, dy, impact) >= 1) {
+                return;
+            }
+
+            if (impact.horizontal) {
+                pos.x = dx > 0 ? impact.tile * G.CELL_SIZE - bounds.x2 : (impact.tile + 1) * G.CELL_SIZE - bounds.x1;
+                physics.vx = physics.bounce > 0 ? -physics.vx * physics.bounce : 0;
+                dx = 0;
+            } else {
+                pos.y = dy > 0 ? impact.tile * G.CELL_SIZE - bounds.y2 : (impact.tile + 1) * G.CELL_SIZE - bounds.y1;
+                physics.vy = physics.bounce > 0 ? -physics.vy * physics.bounce : 0;
+                dy = 0;
+            }
+        }
+    }
+
     private boolean collides(final float x, final float y) {
         if (DEBUG) {
             world.createEntity()
@@ -89,4 +137,10 @@ public class MapCollisionSystem extends EntityProcessingSystem {
 
         return solidMask.atScreen(x, y);
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.reads(Bounds.class, ContinuousCollision.class, MapSystem.class).writes(Pos.class, Physics.class);
+        if (DEBUG) access.structural();
+    }
 }
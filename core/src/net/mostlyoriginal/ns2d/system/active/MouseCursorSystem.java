@@ -7,6 +7,8 @@ import com.artemis.annotations.Wire;
 import com.artemis.systems.EntityProcessingSystem;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Vector3;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
 import net.mostlyoriginal.ns2d.component.MouseCursor;
 import net.mostlyoriginal.ns2d.component.Pos;
 import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
@@ -15,7 +17,7 @@ import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
  * @author Daan van Yperen
  */
 @Wire
-public class MouseCursorSystem extends EntityProcessingSystem {
+public class MouseCursorSystem extends EntityProcessingSystem implements ScheduledSystem {
 
     private ComponentMapper<Pos> pm;
     private ComponentMapper<MouseCursor> am;
@@ -40,4 +42,10 @@ public class MouseCursorSystem extends EntityProcessingSystem {
         pos.x = unproject.x;
         pos.y = unproject.y;
     }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        // polls Gdx.input.
+        access.reads(MouseCursor.class, CameraSystem.class).writes(Pos.class).mainThread();
+    }
 }
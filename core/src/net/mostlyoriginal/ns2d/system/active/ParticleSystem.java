@@ -1,30 +1,82 @@
 package net.mostlyoriginal.ns2d.system.active;
 
-import com.artemis.ComponentMapper;
-import com.artemis.Entity;
 import com.artemis.annotations.Wire;
+import com.artemis.systems.VoidEntitySystem;
 import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import net.mostlyoriginal.ns2d.api.PassiveSystem;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
 import net.mostlyoriginal.ns2d.component.*;
 import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
+import net.mostlyoriginal.ns2d.system.passive.InterpolationSystem;
+import net.mostlyoriginal.ns2d.system.passive.MapSystem;
+import net.mostlyoriginal.ns2d.util.PackedBodies;
+import net.mostlyoriginal.ns2d.util.ParticleBuffer;
 
 /**
- * Wrapper for particles. we can make this more efficient later.
+ * Cosmetic particles, kept out of the entity system.
+ * <p/>
+ * Particles live in one {@link ParticleBuffer} per {@link Anim.Layer}. Each step they age,
+ * fade, fall, stop against the map and move in a single loop, with the same math as
+ * {@link TerminalSystem}, {@link GravitySystem}, {@link MapCollisionSystem} and
+ * {@link AfterPhysicsSystem}. {@link net.mostlyoriginal.ns2d.system.render.AnimRenderSystem}
+ * draws each layer's particles right after that layer's entities.
  *
  * @author Daan van Yperen
  */
 @Wire
-public class ParticleSystem extends PassiveSystem {
+public class ParticleSystem extends VoidEntitySystem implements ScheduledSystem {
 
     public static final float EXPLOSION_FRAME_DURATION = 1/15f;
 
-    ComponentMapper<Anim> am;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final float SPAWN_ALPHA = 0.9f;
+
     AssetSystem assetSystem;
+    MapCollisionSystem mapCollisionSystem;
+    InterpolationSystem interpolationSystem;
     private float rotation;
 
+    private final ParticleBuffer[] layers = new ParticleBuffer[Anim.Layer.values().length];
+
+    // stand-ins to borrow the map collision math.
+    private final Pos tmpPos = new Pos();
+    private final Physics tmpPhysics = new Physics();
+    private final Bounds tmpBounds = new Bounds();
+
+    // sprite handles, resolved once.
+    private int alienBloodSprite;
+    private int debrisSprite;
+    private int shellCasingSprite;
+    private int bulletCasingSprite;
+    private int jetpackSprite;
+    private int puffSprite;
+    private int bileSprite;
+    private int muzzleFlareSprite;
+    private int explosionSprite;
+
+    public ParticleSystem() {
+        for (int i = 0; i < layers.length; i++) {
+            layers[i] = new ParticleBuffer(INITIAL_CAPACITY);
+        }
+    }
+
+    @Override
+    protected void initialize() {
+        alienBloodSprite = assetSystem.resolve("particle-alienblood");
+        debrisSprite = assetSystem.resolve("particle-debris");
+        shellCasingSprite = assetSystem.resolve("particle-shellcasing");
+        bulletCasingSprite = assetSystem.resolve("particle-bulletcasing");
+        jetpackSprite = assetSystem.resolve("particle-jetpack");
+        puffSprite = assetSystem.resolve("particle-puff");
+        bileSprite = assetSystem.resolve("bile-droplet");
+        muzzleFlareSprite = assetSystem.resolve("particle-muzzleflare");
+        explosionSprite = assetSystem.resolve("particle-explosion");
+    }
+
     public void spawnParticle(int x, int y, String particle) {
 
         switch ( particle )
@@ -63,164 +115,257 @@ public class ParticleSystem extends PassiveSystem {
     }
 
     private void createAlienBlood(int x, int y) {
-        createWoundParticle(x, y, "particle-alienblood");
+        createWoundParticle(x, y, alienBloodSprite);
     }
 
     Vector2 vTmp = new Vector2();
     private void createDebris(int x, int y) {
 
-        createWoundParticle(x, y, "particle-debris");
+        createWoundParticle(x, y, debrisSprite);
     }
 
-    private void createWoundParticle(int x, int y, String animId) {
+    private void createWoundParticle(int x, int y, int sprite) {
         vTmp.set(MathUtils.random(200, 500), 0).rotate(rotation);
 
-        final Physics physics = new Physics();
-        physics.vr = MathUtils.random(-90, 90)*10f;
-        physics.vx = vTmp.x;
-        physics.vy = vTmp.y;
-        physics.friction = 0.02f;
-
-        final TextureRegion frame = assetSystem.get(animId).getKeyFrame(0);
+        final ParticleBuffer p = layers[Anim.Layer.DEFAULT_LAYER.ordinal()];
+        final int i = basicCenteredParticle(p, x, y, sprite, 1, 1);
+        p.body.vr[i] = MathUtils.random(-90, 90)*10f;
+        p.body.vx[i] = vTmp.x;
+        p.body.vy[i] = vTmp.y;
+        p.body.friction[i] = 0.02f;
+        p.gravity[i] = Gravity.DEFAULT_Y_GRAVITY;
 
-        Entity entity = basicCenteredParticle(x, y, animId, 1, 1)
-		        .edit()
-                .add(new Terminal(4f, 3.5f))
-                .add(physics)
-                .add(new Bounds(frame))
-                .add(new Gravity()).getEntity();
+        terminal(p, i, 4f, 3.5f);
 
-        Anim anim = am.get(entity);
-        anim.speed = 0;
-        anim.age = MathUtils.random(0,10f);
+        p.speed[i] = 0;
+        p.age[i] = MathUtils.random(0,10f);
     }
 
     private void createShellCasing(int x, int y) {
-        Entity entity = basicShellParticle(x, y, "particle-shellcasing");
-        am.get(entity).layer= Anim.Layer.DIRECTLY_BEHIND_PLAYER;
+        basicShellParticle(x, y, shellCasingSprite);
     }
 
     private void createBulletCasing(int x, int y) {
-        Entity entity = basicShellParticle(x, y, "particle-bulletcasing");
-        am.get(entity).layer= Anim.Layer.DIRECTLY_BEHIND_PLAYER;
+        basicShellParticle(x, y, bulletCasingSprite);
     }
 
 
     private void createGasBurn(int x, int y) {
         vTmp.set(50, 0).rotate(rotation-90);
-        final Physics physics = new Physics();
-        physics.friction = 0.1f;
-        physics.vx = vTmp.x;
-        physics.vy = vTmp.y;
-        physics.friction = 0.1f;
 
-        Animation animation = assetSystem.get("particle-jetpack");
-        final TextureRegion frame = animation.getKeyFrame(0);
+        Animation animation = assetSystem.get(jetpackSprite);
+
+        final ParticleBuffer p = layers[Anim.Layer.DIRECTLY_BEHIND_PLAYER.ordinal()];
+        final int i = basicCenteredParticle(p, x, y, jetpackSprite, 1,  1);
+        p.body.vx[i] = vTmp.x;
+        p.body.vy[i] = vTmp.y;
+        p.body.friction[i] = 0.1f;
 
-        Entity entity = basicCenteredParticle(x, y, "particle-jetpack", 1,  1)
-		        .edit()
-                .add(new Terminal(animation.getAnimationDuration(), 0.1f))
-                .add(physics)
-                .add(new Bounds(frame)).getEntity();
-        am.get(entity).layer = Anim.Layer.DIRECTLY_BEHIND_PLAYER;
+        terminal(p, i, animation.getAnimationDuration(), 0.1f);
     }
 
     private void createPuff(int x, int y) {
         vTmp.set(100, 0).rotate(rotation-90);
-        final Physics physics = new Physics();
-        physics.friction = 0.1f;
-        physics.vx = vTmp.x;
-        physics.vy = vTmp.y;
-        physics.friction = 0.1f;
 
-        Animation animation = assetSystem.get("particle-puff");
-        final TextureRegion frame = animation.getKeyFrame(0);
+        final ParticleBuffer p = layers[Anim.Layer.DIRECTLY_BEHIND_BEHIND_PLAYER.ordinal()];
+        final int i = basicCenteredParticle(p, x, y, puffSprite, 1, 1);
+        p.body.vx[i] = vTmp.x;
+        p.body.vy[i] = vTmp.y;
+        p.body.friction[i] = 0.1f;
 
-        Entity entity = basicCenteredParticle(x, y, "particle-puff", 1, 1)
-		        .edit()
-                .add(new Terminal(3,3))
-                .add(physics)
-                .add(new Bounds(frame)).getEntity();
-        Anim anim = am.get(entity);
-        anim.layer = Anim.Layer.DIRECTLY_BEHIND_BEHIND_PLAYER;
-        anim.age = MathUtils.random(999f);
-        anim.speed = 0;
+        terminal(p, i, 3, 3);
+        p.age[i] = MathUtils.random(999f);
+        p.speed[i] = 0;
     }
 
-    private Entity basicShellParticle(int x, int y, String animId) {
-        final Physics physics = new Physics();
-        physics.vr = MathUtils.random(-90, -80)*10f;
-        physics.vx = MathUtils.random(-90, -80)*1.5f;
-        physics.vy = MathUtils.random(100, 110)*1.5f;
-        physics.friction = 0.1f;
+    private void basicShellParticle(int x, int y, int sprite) {
+        final float vr = MathUtils.random(-90, -80)*10f;
+        final float vx = MathUtils.random(-90, -80)*1.5f;
+        final float vy = MathUtils.random(100, 110)*1.5f;
 
-        final TextureRegion frame = assetSystem.get(animId).getKeyFrame(0);
+        final ParticleBuffer p = layers[Anim.Layer.DIRECTLY_BEHIND_PLAYER.ordinal()];
+        final int i = basicCenteredParticle(p, x, y, sprite, 1, 1);
+        p.body.vr[i] = vr;
+        p.body.vx[i] = vx;
+        p.body.vy[i] = vy;
+        p.body.friction[i] = 0.1f;
+        p.gravity[i] = Gravity.DEFAULT_Y_GRAVITY;
 
-        return basicCenteredParticle(x, y, animId, 1, 1)
-		        .edit()
-                .add(new Terminal(1.5f,0.5f))
-                .add(physics)
-                .add(new Bounds(frame))
-                .add(new Gravity()).getEntity();
+        terminal(p, i, 1.5f, 0.5f);
     }
 
     private void createBile(int x, int y) {
-        final Physics physics = new Physics();
-        physics.vr = MathUtils.random(-90, 90)*10f;
-        physics.vx = MathUtils.random(-90, 90)*1.5f;
-        physics.vy = MathUtils.random(100, 110)*1.5f;
-        physics.friction = 0.1f;
-
-        final TextureRegion frame = assetSystem.get("bile-droplet").getKeyFrame(0);
-
-        Entity entity = basicCenteredParticle(x, y, "bile-droplet", 1, 1)
-		        .edit()
-                .add(new Terminal(4f, 3.5f))
-                .add(physics)
-                .add(new Bounds(frame))
-                .add(new Gravity()).getEntity();
-        am.get(entity).layer = Anim.Layer.DIRECTLY_BEHIND_PLAYER;
+        final float vr = MathUtils.random(-90, 90)*10f;
+        final float vx = MathUtils.random(-90, 90)*1.5f;
+        final float vy = MathUtils.random(100, 110)*1.5f;
+
+        final ParticleBuffer p = layers[Anim.Layer.DIRECTLY_BEHIND_PLAYER.ordinal()];
+        final int i = basicCenteredParticle(p, x, y, bileSprite, 1, 1);
+        p.body.vr[i] = vr;
+        p.body.vx[i] = vx;
+        p.body.vy[i] = vy;
+        p.body.friction[i] = 0.1f;
+        p.gravity[i] = Gravity.DEFAULT_Y_GRAVITY;
+
+        terminal(p, i, 4f, 3.5f);
     }
 
     private void createMuzzleFlare(int x, int y) {
-        basicCenteredParticle(x, y, "particle-muzzleflare", 1, 1)
-		        .edit()
-                .add(new Terminal(1 / 15f))
-                ;
+        final ParticleBuffer p = layers[Anim.Layer.DEFAULT_LAYER.ordinal()];
+        final int i = basicCenteredParticle(p, x, y, muzzleFlareSprite, 1, 1);
+        terminal(p, i, 1 / 15f, 0);
     }
 
     private void createExplosion(int x, int y, float scale) {
         float speed = MathUtils.random(0.8f,1f);
-        basicCenteredParticle(x, y, "particle-explosion", scale, speed)
-                .edit().add(new Terminal(EXPLOSION_FRAME_DURATION * 5 * (1 / speed)))
-                ;
+        final ParticleBuffer p = layers[Anim.Layer.DEFAULT_LAYER.ordinal()];
+        final int i = basicCenteredParticle(p, x, y, explosionSprite, scale, speed);
+        terminal(p, i, EXPLOSION_FRAME_DURATION * 5 * (1 / speed), 0);
+    }
 
+    private void terminal(ParticleBuffer p, int i, float lifetime, float alphaFadeout) {
+        p.lifetime[i] = lifetime;
+        p.fadeout[i] = alphaFadeout;
     }
 
     /**
-     * Spawns a particle, animation centered on x,y.
+     * Spawns a particle that stays put, animation centered on x,y. Collision box matches the first frame.
      *
+     * @param p buffer of the layer to draw the particle on.
      * @param x
      * @param y
-     * @param animId
-     * @return
+     * @param sprite handle of the animation.
+     * @return index of the particle in p.
      */
-    private Entity basicCenteredParticle(int x, int y, String animId, float scale, float speed) {
-        Anim anim = new Anim(animId);
-        anim.scale=scale;
-        anim.speed=speed;
-        anim.color.a= 0.9f;
-        anim.rotation=rotation;
-
-        TextureRegion frame = assetSystem.get(animId).getKeyFrame(0);
+    private int basicCenteredParticle(ParticleBuffer p, int x, int y, int sprite, float scale, float speed) {
+        final Animation animation = assetSystem.get(sprite);
+        final TextureRegion frame = animation.getKeyFrame(0);
 
-        return world.createEntity()
-		        .edit()
-                .add(new Pos(x - ((frame.getRegionWidth() * anim.scale) / 2), y - (frame.getRegionHeight() * anim.scale) / 2))
-                .add(anim).getEntity();
+        final int i = p.add();
+        p.animation[i] = animation;
+        p.scale[i] = scale;
+        p.speed[i] = speed;
+        p.age[i] = 0;
+        p.alpha[i] = SPAWN_ALPHA;
+        p.rotation[i] = rotation;
+
+        p.body.x[i] = p.px[i] = x - ((frame.getRegionWidth() * scale) / 2);
+        p.body.y[i] = p.py[i] = y - (frame.getRegionHeight() * scale) / 2;
+        p.body.x1[i] = 0;
+        p.body.y1[i] = 0;
+        p.body.x2[i] = frame.getRegionWidth();
+        p.body.y2[i] = frame.getRegionHeight();
+
+        p.body.vx[i] = 0;
+        p.body.vy[i] = 0;
+        p.body.vr[i] = 0;
+        p.body.friction[i] = 0;
+        p.body.bounce[i] = 0;
+        p.gravity[i] = 0;
+        p.lifetime[i] = 0;
+        p.fadeout[i] = 0;
+        return i;
     }
 
     public void setRotation(float rotation) {
         this.rotation = rotation;
     }
+
+    /**
+     * @return number of live particles.
+     */
+    public int size() {
+        int size = 0;
+        for (ParticleBuffer p : layers) {
+            size += p.size();
+        }
+        return size;
+    }
+
+    @Override
+    protected void processSystem() {
+        final float delta = world.delta;
+        for (ParticleBuffer p : layers) {
+            final PackedBodies body = p.body;
+            final float[] x = body.x, y = body.y, vx = body.vx, vy = body.vy;
+            // backwards, so the particle swapped in on removal has already been processed.
+            for (int i = p.size() - 1; i >= 0; i--) {
+                p.lifetime[i] -= delta;
+                if (p.lifetime[i] <= 0) {
+                    p.remove(i);
+                    continue;
+                }
+                if (p.fadeout[i] > 0 && p.lifetime[i] <= p.fadeout[i]) {
+                    p.alpha[i] = p.lifetime[i] / p.fadeout[i];
+                }
+
+                p.px[i] = x[i];
+                p.py[i] = y[i];
+
+                vy[i] += p.gravity[i] * GravitySystem.GRAVITY_FACTOR * delta;
+
+                if (vx[i] != 0 || vy[i] != 0) {
+                    constrain(body, i);
+                }
+
+                x[i] += vx[i] * delta;
+                y[i] += vy[i] * delta;
+                p.rotation[i] += body.vr[i] * delta;
+
+                final float friction = body.friction[i];
+                if (friction != 0) {
+                    vx[i] = Math.abs(vx[i]) > 0.005f ? vx[i] - (vx[i] * delta * friction) : 0;
+                    body.vr[i] = Math.abs(body.vr[i]) > 0.005f ? body.vr[i] - (body.vr[i] * delta * friction) : 0;
+                    vy[i] = Math.abs(vy[i]) > 0.005f ? vy[i] - (vy[i] * delta * friction) : 0;
+                }
+            }
+        }
+    }
+
+    private void constrain(PackedBodies body, int i) {
+        body.load(i, tmpPos, tmpPhysics, tmpBounds);
+        mapCollisionSystem.constrain(tmpPhysics, tmpPos, tmpBounds, false);
+        body.vx[i] = tmpPhysics.vx;
+        body.vy[i] = tmpPhysics.vy;
+    }
+
+    /**
+     * Draw all particles on layer, blended between the last two steps. Advances animations by the world delta.
+     *
+     * @param batch begun batch.
+     */
+    public void render(final Batch batch, final Anim.Layer layer) {
+        final ParticleBuffer p = layers[layer.ordinal()];
+        final int size = p.size();
+        if (size == 0) return;
+
+        final float blend = interpolationSystem.getAlpha();
+        final float delta = world.delta;
+        float alpha = -1;
+        for (int i = 0; i < size; i++) {
+            p.age[i] += delta * p.speed[i];
+
+            if (p.alpha[i] != alpha) {
+                alpha = p.alpha[i];
+                batch.setColor(1f, 1f, 1f, alpha);
+            }
+
+            final TextureRegion frame = p.animation[i].getKeyFrame(p.age[i], true);
+            final float x = p.px[i] + (p.body.x[i] - p.px[i]) * blend;
+            final float y = p.py[i] + (p.body.y[i] - p.py[i]) * blend;
+            final float width = frame.getRegionWidth() * p.scale[i];
+            final float height = frame.getRegionHeight() * p.scale[i];
+
+            if (p.rotation[i] != 0) {
+                batch.draw(frame, (int) x, (int) y, width * 0.5f, height * 0.5f, width, height, 1, 1, p.rotation[i]);
+            } else {
+                batch.draw(frame, (int) x, (int) y, width, height);
+            }
+        }
+    }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.reads(MapSystem.class).writes(ParticleSystem.class);
+    }
 }
@@ -9,8 +9,11 @@ import com.artemis.managers.TagManager;
 import com.artemis.systems.EntityProcessingSystem;
 import com.artemis.utils.ImmutableBag;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
 import net.mostlyoriginal.ns2d.component.*;
+import net.mostlyoriginal.ns2d.system.passive.SpatialIndexSystem;
 import net.mostlyoriginal.ns2d.util.EntityUtil;
+import net.mostlyoriginal.ns2d.util.SpatialHash;
 
 /**
  * @author Daan van Yperen
@@ -41,6 +44,13 @@ public class SkulkControlSystem extends EntityProcessingSystem {
     private ComponentMapper<Buildable> bm;
     private ComponentMapper<Health> hm;
     public ImmutableBag<Entity> playerFriends;
+    private SpatialIndexSystem spatialIndexSystem;
+    private FlowFieldSystem flowFieldSystem;
+    private ComponentMapper<Bounds> om;
+    private Vector2 flow = new Vector2();
+
+    // potential victims, rebuilt every frame.
+    private SpatialHash victims;
 
     public SkulkControlSystem() {
         super(Aspect.getAspectForAll(SkulkControlled.class, WallSensor.class, Anim.class, Physics.class, Focus.class));
@@ -55,35 +65,45 @@ public class SkulkControlSystem extends EntityProcessingSystem {
     @Override
     protected void begin() {
         super.begin();
+
+        if (victims == null) {
+            victims = spatialIndexSystem.createIndex();
+        }
+
+        // we don't care about targets without health.
+        victims.clear();
+        for (int i = 0; playerFriends.size() > i; i++) {
+            final Entity b = playerFriends.get(i);
+            if (b != null && hm.has(b)) {
+                final Pos pos = pm.get(b);
+                victims.insert(b, pos.x, pos.y);
+            }
+        }
     }
 
     private Entity determineFocus(Entity skulk) {
 
         final Focus focus = fm.get(skulk);
-        float closestDistance = -1;
 
         // lose interest in things without health.
         if (focus.entity != null && !hm.has(focus.entity)) {
             focus.entity = null;
         }
 
-        if (focus.entity != null) {
-            closestDistance = EntityUtil.distance2(skulk, focus.entity);
+        // stick with our victim for a while.
+        focus.retargetCooldown -= world.delta;
+        if (focus.entity != null && focus.retargetCooldown > 0) {
+            return focus.entity;
         }
+        focus.retargetCooldown = focus.retargetInterval;
 
-        // check all valid victims.
-        for (int i = 0; playerFriends.size() > i; i++) {
-            final Entity b = playerFriends.get(i);
-
-            // we don't care about targets without health.
-            if (b == null || !hm.has(b))
-                continue;
-
-
-            final float distance = EntityUtil.distance2(skulk, b);
-            if (closestDistance == -1 || distance < closestDistance) {
+        // switch to the closest valid victim, if it beats the current one.
+        final Pos skulkPos = pm.get(skulk);
+        final int closest = victims.nearest(skulkPos.x, skulkPos.y);
+        if (closest != -1) {
+            final Entity b = victims.get(closest);
+            if (focus.entity == null || EntityUtil.distance2(skulk, b) < EntityUtil.distance2(skulk, focus.entity)) {
                 focus.entity = b;
-                closestDistance = distance;
             }
         }
 
@@ -177,10 +197,30 @@ public class SkulkControlSystem extends EntityProcessingSystem {
             float direction = EntityUtil.angle(skulk, focus) + MathUtils.random(-10f, 10f);
             leapTowards(skulk, direction, enemyDistance);
         } else if (sensor.onAnySurface()) {
+            // follow the shared flow field around obstacles, where it has an opinion. The field
+            // leads to whichever player friend is fewest tiles away, so only trust it while that
+            // is likely our focus, not while we stick with a victim further off.
+            if (!tooClose && isNearestVictim(skulkPos, focus) && followFlow(skulk, skulkPos)) {
+                // the step is along one axis, greedy on the other would walk into what it avoids.
+                enemyDirX = flow.x * 100;
+                enemyDirY = flow.y * 100;
+            }
             walkTowards(sensor, physics, enemyDirX, enemyDirY);
         }
     }
 
+    private boolean isNearestVictim(Pos skulkPos, Entity focus) {
+        final int closest = victims.nearest(skulkPos.x, skulkPos.y);
+        return closest != -1 && victims.get(closest) == focus;
+    }
+
+    private boolean followFlow(Entity skulk, Pos skulkPos) {
+        final Bounds bounds = om.getSafe(skulk);
+        return bounds != null ?
+                flowFieldSystem.direction(skulkPos.x + bounds.cx(), skulkPos.y + bounds.cy(), flow) :
+                flowFieldSystem.direction(skulkPos.x, skulkPos.y, flow);
+    }
+
     private void leapTowards(Entity skulk, float direction, float distance) {
         // aim and fire!
         SkulkControlled controlled = com.get(skulk);
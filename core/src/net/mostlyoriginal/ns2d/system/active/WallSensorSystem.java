@@ -5,11 +5,14 @@ import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.annotations.Wire;
 import com.artemis.systems.EntityProcessingSystem;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
 import net.mostlyoriginal.ns2d.component.Bounds;
 import net.mostlyoriginal.ns2d.component.Physics;
 import net.mostlyoriginal.ns2d.component.Pos;
 import net.mostlyoriginal.ns2d.component.WallSensor;
 import net.mostlyoriginal.ns2d.system.passive.MapSystem;
+import net.mostlyoriginal.ns2d.util.EdgeTable;
 import net.mostlyoriginal.ns2d.util.MapMask;
 
 /**
@@ -20,12 +23,13 @@ import net.mostlyoriginal.ns2d.util.MapMask;
  * @author Daan van Yperen
  */
 @Wire
-public class WallSensorSystem extends EntityProcessingSystem {
+public class WallSensorSystem extends EntityProcessingSystem implements ScheduledSystem {
 
     private MapSystem mapSystem;
 
     private boolean initialized;
     private MapMask solidMask;
+    private EdgeTable solidEdges;
 
     private ComponentMapper<Physics> ym;
     private ComponentMapper<Pos> pm;
@@ -41,6 +45,7 @@ public class WallSensorSystem extends EntityProcessingSystem {
         if (!initialized) {
             initialized = true;
             solidMask = mapSystem.getMask("solid");
+            solidEdges = new EdgeTable(solidMask);
         }
     }
 
@@ -58,10 +63,17 @@ public class WallSensorSystem extends EntityProcessingSystem {
 
         final WallSensor wallSensor = ws.get(e);
 
-        final boolean onFloor = collides(px + bounds.x1 + (bounds.x2 - bounds.x1) * 0.5f, py + bounds.y1 - 1);
-        final boolean onCeiling = collides(px + bounds.x1 + (bounds.x2 - bounds.x1) * 0.5f, py + bounds.y2 + 1);
-        final boolean onEastWall = collides(px + bounds.x2 + 1, py + bounds.y1 + (bounds.y2 - bounds.y1) * 0.5f);
-        final boolean onWestWall = collides(px + bounds.x1 - 1, py + bounds.y1 + (bounds.y2 - bounds.y1) * 0.5f);
+        final float cx = px + bounds.x1 + (bounds.x2 - bounds.x1) * 0.5f;
+        final float cy = py + bounds.y1 + (bounds.y2 - bounds.y1) * 0.5f;
+        final int tx = MapMask.toGrid(cx);
+        final int ty = MapMask.toGrid(cy);
+
+        // probes all sit on the center row and column, resolve them from the center tile's edges.
+        final int edges = solidEdges.at(tx, ty);
+        final boolean onFloor = probe(edges, tx, MapMask.toGrid(py + bounds.y1 - 1), ty, EdgeTable.BELOW, EdgeTable.ABOVE, false);
+        final boolean onCeiling = probe(edges, tx, MapMask.toGrid(py + bounds.y2 + 1), ty, EdgeTable.BELOW, EdgeTable.ABOVE, false);
+        final boolean onEastWall = probe(edges, MapMask.toGrid(px + bounds.x2 + 1), ty, tx, EdgeTable.WEST, EdgeTable.EAST, true);
+        final boolean onWestWall = probe(edges, MapMask.toGrid(px + bounds.x1 - 1), ty, tx, EdgeTable.WEST, EdgeTable.EAST, true);
 
         wallSensor.onVerticalSurface = onEastWall || onWestWall;
         wallSensor.onFloor = onFloor;
@@ -74,7 +86,23 @@ public class WallSensorSystem extends EntityProcessingSystem {
                     onWestWall ? 180 : 90;
     }
 
-    private boolean collides(final float x, final float y) {
-        return solidMask.atScreen(x, y);
+    /**
+     * Test a probe tile on the center row or column.
+     *
+     * @param center center tile along the probed axis.
+     * @return solid at probe, from the center tile's edges when it is adjacent, otherwise from the mask.
+     */
+    private boolean probe(final int edges, final int gx, final int gy, final int center, final int before, final int after, final boolean horizontal) {
+        if (edges == EdgeTable.OUTSIDE) return solidMask.atGrid(gx, gy);
+        final int offset = (horizontal ? gx : gy) - center;
+        return offset == 0 ? (edges & EdgeTable.SELF) != 0 :
+               offset == -1 ? (edges & before) != 0 :
+               offset == 1 ? (edges & after) != 0 :
+               solidMask.atGrid(gx, gy);
+    }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.reads(Pos.class, Bounds.class, MapSystem.class).writes(WallSensor.class);
     }
 }
@@ -28,6 +28,7 @@ public class WeaponSystem extends EntityProcessingSystem {
     private ComponentMapper<Physics> ym;
     private ComponentMapper<Gravity> gm;
     private ComponentMapper<Buildable> bm;
+    private ComponentMapper<Payload> ptm;
     private GroupManager groupManager;
     private PhysicsSystem physicsSystems;
     private AfterPhysicsSystem afterPhysicsSystem;
@@ -97,6 +98,12 @@ public class WeaponSystem extends EntityProcessingSystem {
                     }
                 }
 
+                if ( weapon.bulletSpriteId != weapon.bulletAnimId )
+                {
+                    weapon.bulletSprite = assetSystem.resolve(weapon.bulletAnimId);
+                    weapon.bulletSpriteId = weapon.bulletAnimId;
+                }
+
                 // repeated bullets.
                 for (int c = 0, s = MathUtils.random(weapon.minBullets, weapon.maxBullets); c < s; c++) {
 
@@ -106,7 +113,8 @@ public class WeaponSystem extends EntityProcessingSystem {
                     float rotation = aimRotation + MathUtils.random(-weapon.spread, weapon.spread);
                     Anim bulletAnim = am.get(bullet);
                     bulletAnim.rotation = rotation;
-                    bulletAnim.id = weapon.bulletAnimId;
+                    bulletAnim.id = bulletAnim.spriteId = weapon.bulletAnimId;
+                    bulletAnim.sprite = weapon.bulletSprite;
 
                     // push back the user.
                     if (atm.has(gun)) {
@@ -131,9 +139,8 @@ public class WeaponSystem extends EntityProcessingSystem {
                     physics.friction = weapon.bulletFriction;
                     physics.bounce = weapon.bulletBounce;
 
-                    Payload payload = weapon.bulletPayload.clone();
+                    Payload payload = ptm.get(bullet).set(weapon.bulletPayload);
                     payload.triggerGroup = weapon.enemyGroup;
-                    bullet.edit().add(payload);
 
                     Gravity gravity = gm.get(bullet);
                     gravity.y *= weapon.bulletGravityFactor;
@@ -4,10 +4,9 @@ import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.annotations.Wire;
-import com.artemis.managers.GroupManager;
 import com.artemis.managers.TagManager;
 import com.artemis.systems.EntityProcessingSystem;
-import com.artemis.utils.ImmutableBag;
+import com.artemis.utils.Bag;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import net.mostlyoriginal.ns2d.component.*;
@@ -16,8 +15,7 @@ import net.mostlyoriginal.ns2d.system.active.CombatSystem;
 import net.mostlyoriginal.ns2d.system.active.EntitySpawnerSystem;
 import net.mostlyoriginal.ns2d.system.active.ParticleSystem;
 import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
-import net.mostlyoriginal.ns2d.system.passive.CollisionSystem;
-import net.mostlyoriginal.ns2d.util.EntityUtil;
+import net.mostlyoriginal.ns2d.system.passive.SpatialIndexSystem;
 
 /**
  * @author Daan van Yperen
@@ -30,15 +28,15 @@ public class BulletCollisionSystem extends EntityProcessingSystem {
     private ComponentMapper<Pos> om;
     private ComponentMapper<Wallet> wm;
     private ComponentMapper<Inventory> im;
-    private GroupManager groupManager;
-    private CollisionSystem collisionSystem;
     private CombatSystem combatSystem;
     private ParticleSystem particleSystem;
     private TagManager tagManager;
     private EntitySpawnerSystem entitySpawnerSystem;
     private ComponentMapper<Anim> am;
     private AssetSystem assetSystem;
+    private SpatialIndexSystem spatialIndexSystem;
 
+    private Bag<Entity> victims = new Bag<Entity>();
 
     public BulletCollisionSystem() {
         super(Aspect.getAspectForAll(Payload.class));
@@ -66,14 +64,10 @@ public class BulletCollisionSystem extends EntityProcessingSystem {
             return;
         }
 
-        final ImmutableBag<Entity> targets = groupManager.getEntities(payload.triggerGroup);
-        for (int i = 0, s = targets.size(); s > i; i++) {
-            final Entity victim = targets.get(i);
-            if (victim != null && collisionSystem.overlaps(bullet, victim)) {
-                triggerPayload(victim, bullet);
-                bullet.deleteFromWorld();
-                return;
-            }
+        // only targets sharing grid cells with the bullet, first in group order wins.
+        if (spatialIndexSystem.overlapping(payload.triggerGroup, bullet, victims) > 0) {
+            triggerPayload(victims.get(0), bullet);
+            bullet.deleteFromWorld();
         }
     }
 
@@ -143,12 +137,15 @@ public class BulletCollisionSystem extends EntityProcessingSystem {
 
         }
 
-        final ImmutableBag<Entity> targets = groupManager.getEntities(groupId);
-        for (int i = 0, s = targets.size(); s > i; i++) {
-            final Entity victim = targets.get(i);
-            if (victim != null && EntityUtil.distance2(bullet, victim) <= radius * radius) {
-                combatSystem.damage(victim, damage);
-            }
-        }
+        areaDamage = damage;
+        spatialIndexSystem.queryRadius(groupId, pos.x, pos.y, radius, damageVictim);
     }
+
+    private int areaDamage;
+    private final SpatialIndexSystem.Callback damageVictim = new SpatialIndexSystem.Callback() {
+        @Override
+        public void found(Entity victim) {
+            combatSystem.damage(victim, areaDamage);
+        }
+    };
 }
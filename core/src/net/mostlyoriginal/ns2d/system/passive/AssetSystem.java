@@ -12,9 +12,11 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
 import net.mostlyoriginal.ns2d.api.PassiveSystem;
+import net.mostlyoriginal.ns2d.component.Anim;
 import net.mostlyoriginal.ns2d.component.Pos;
 import net.mostlyoriginal.ns2d.system.active.ParticleSystem;
 import net.mostlyoriginal.ns2d.util.EntityUtil;
+import net.mostlyoriginal.ns2d.util.SpriteRegistry;
 
 import java.util.HashMap;
 
@@ -29,14 +31,39 @@ public class AssetSystem extends PassiveSystem {
     public final BitmapFont fontLarge;
 
     public Texture tileset;
-    public HashMap<String, Animation> sprites = new HashMap<String, Animation>();
+    public final SpriteRegistry sprites = new SpriteRegistry();
     public HashMap<String, Sound> sounds = new HashMap<String, Sound>();
     private TagManager tagManager;
 
     ComponentMapper<Pos> pm;
 
+    /**
+     * Look up by string id. For per frame lookups, resolve a handle once and use {@link #get(int)}.
+     */
     public Animation get(final String identifier) {
-        return sprites.get(identifier);
+        return sprites.get(sprites.resolve(identifier));
+    }
+
+    public Animation get(final int sprite) {
+        return sprites.get(sprite);
+    }
+
+    /**
+     * @return sprite handle of identifier, or {@link SpriteRegistry#NONE}.
+     */
+    public int resolve(final String identifier) {
+        return sprites.resolve(identifier);
+    }
+
+    /**
+     * @return sprite handle of anim, only resolving {@link Anim#id} after it changed.
+     */
+    public int resolve(final Anim anim) {
+        if (anim.spriteId != anim.id) {
+            anim.sprite = sprites.resolve(anim.id);
+            anim.spriteId = anim.id;
+        }
+        return anim.sprite;
     }
 
     public Sound getSfx(final String identifier) {
@@ -67,7 +94,9 @@ public class AssetSystem extends PassiveSystem {
             }
         }
 
-        return sprites.put(identifier, new Animation(frameDuration, regions));
+        final Animation animation = new Animation(frameDuration, regions);
+        sprites.register(identifier, animation);
+        return animation;
     }
 
     public AssetSystem() {
@@ -0,0 +1,140 @@
+package net.mostlyoriginal.ns2d.system.passive;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.EntitySystem;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+import net.mostlyoriginal.ns2d.component.*;
+
+/**
+ * Recycles bullet components.
+ * <p/>
+ * {@link net.mostlyoriginal.ns2d.util.EntityFactory#createBullet} takes its components
+ * from these pools, and once a bullet leaves the world they are reset and returned.
+ * Only bullets carry a {@link Payload}, so that is what is watched.
+ * <p/>
+ * Other systems may still read a bullet in their own removed callbacks, so components are
+ * only returned when this system processes next, at the start of the following step.
+ */
+@Wire
+public class BulletPoolSystem extends EntitySystem {
+
+    private ComponentMapper<Pos> pm;
+    private ComponentMapper<Anim> am;
+    private ComponentMapper<Physics> ym;
+    private ComponentMapper<Gravity> gm;
+    private ComponentMapper<ContinuousCollision> cm;
+    private ComponentMapper<Bounds> bm;
+    private ComponentMapper<Payload> ptm;
+
+    public final Pool<Pos> positions = new Pool<Pos>() {
+        @Override
+        protected Pos newObject() {
+            return new Pos();
+        }
+    };
+    public final Pool<Anim> anims = new Pool<Anim>() {
+        @Override
+        protected Anim newObject() {
+            return new Anim();
+        }
+    };
+    public final Pool<Physics> physics = new Pool<Physics>() {
+        @Override
+        protected Physics newObject() {
+            return new Physics();
+        }
+    };
+    public final Pool<Gravity> gravities = new Pool<Gravity>() {
+        @Override
+        protected Gravity newObject() {
+            return new Gravity();
+        }
+    };
+    public final Pool<ContinuousCollision> continuousCollisions = new Pool<ContinuousCollision>() {
+        @Override
+        protected ContinuousCollision newObject() {
+            return new ContinuousCollision();
+        }
+    };
+    public final Pool<Bounds> bounds = new Pool<Bounds>() {
+        @Override
+        protected Bounds newObject() {
+            return new Bounds();
+        }
+    };
+    public final Pool<Payload> payloads = new Pool<Payload>() {
+        @Override
+        protected Payload newObject() {
+            return new Payload();
+        }
+    };
+
+    // components of removed bullets, until the next step.
+    private final Retired<Pos> retiredPositions = new Retired<Pos>(positions);
+    private final Retired<Anim> retiredAnims = new Retired<Anim>(anims);
+    private final Retired<Physics> retiredPhysics = new Retired<Physics>(physics);
+    private final Retired<Gravity> retiredGravities = new Retired<Gravity>(gravities);
+    private final Retired<ContinuousCollision> retiredContinuousCollisions = new Retired<ContinuousCollision>(continuousCollisions);
+    private final Retired<Bounds> retiredBounds = new Retired<Bounds>(bounds);
+    private final Retired<Payload> retiredPayloads = new Retired<Payload>(payloads);
+    private boolean pending;
+
+    public BulletPoolSystem() {
+        super(Aspect.getAspectForAll(Payload.class));
+    }
+
+    @Override
+    protected void removed(Entity e) {
+        retiredPositions.add(pm.getSafe(e));
+        retiredAnims.add(am.getSafe(e));
+        retiredPhysics.add(ym.getSafe(e));
+        retiredGravities.add(gm.getSafe(e));
+        retiredContinuousCollisions.add(cm.getSafe(e));
+        retiredBounds.add(bm.getSafe(e));
+        retiredPayloads.add(ptm.getSafe(e));
+        pending = true;
+    }
+
+    @Override
+    protected void processEntities(ImmutableBag<Entity> entities) {
+        retiredPositions.free();
+        retiredAnims.free();
+        retiredPhysics.free();
+        retiredGravities.free();
+        retiredContinuousCollisions.free();
+        retiredBounds.free();
+        retiredPayloads.free();
+        pending = false;
+    }
+
+    @Override
+    protected boolean checkProcessing() {
+        return pending;
+    }
+
+    private static class Retired<T> {
+
+        private final Pool<T> pool;
+        private final Array<T> components = new Array<T>(false, 64);
+
+        public Retired(Pool<T> pool) {
+            this.pool = pool;
+        }
+
+        public void add(T component) {
+            if (component != null) {
+                components.add(component);
+            }
+        }
+
+        public void free() {
+            pool.freeAll(components);
+            components.clear();
+        }
+    }
+}
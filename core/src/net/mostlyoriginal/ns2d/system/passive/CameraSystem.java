@@ -24,6 +24,16 @@ public class CameraSystem extends VoidEntitySystem {
         guiCamera.update();
     }
 
+    /**
+     * @return TRUE when the world rectangle, bounds inclusive, overlaps what the camera sees.
+     */
+    public boolean inView(final float x1, final float y1, final float x2, final float y2) {
+        final float halfWidth = camera.viewportWidth * camera.zoom * 0.5f;
+        final float halfHeight = camera.viewportHeight * camera.zoom * 0.5f;
+        return x2 >= camera.position.x - halfWidth && x1 <= camera.position.x + halfWidth &&
+                y2 >= camera.position.y - halfHeight && y1 <= camera.position.y + halfHeight;
+    }
+
     @Override
     protected void processSystem() {
 
@@ -0,0 +1,130 @@
+package net.mostlyoriginal.ns2d.system.passive;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.EntitySystem;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.ImmutableBag;
+import net.mostlyoriginal.ns2d.G;
+import net.mostlyoriginal.ns2d.component.Pos;
+
+/**
+ * Blends {@link Pos} between the last two simulation steps while rendering.
+ * <p/>
+ * Call {@link #capture()} before every simulation step, then {@link #interpolate(float)}
+ * before rendering and {@link #restore()} after, so the simulation never sees blended positions.
+ */
+@Wire
+public class InterpolationSystem extends EntitySystem {
+
+    /** moves further than this in one step are teleports, and are not blended. */
+    public static final float SNAP_DISTANCE = G.CELL_SIZE * 4;
+
+    private ComponentMapper<Pos> pm;
+
+    // x,y per entity id, before the last step and of the actual simulation state.
+    private float[] previous = new float[128 * 2];
+    private float[] current = new float[128 * 2];
+    private boolean interpolated;
+    private float alpha = 1;
+
+    public InterpolationSystem() {
+        super(Aspect.getAspectForAll(Pos.class));
+        setPassive(true);
+    }
+
+    @Override
+    protected void inserted(Entity e) {
+        store(true, e);
+    }
+
+    /**
+     * Remember positions before a simulation step.
+     */
+    public void capture() {
+        final ImmutableBag<Entity> actives = getActives();
+        for (int i = 0, s = actives.size(); s > i; i++) {
+            store(true, actives.get(i));
+        }
+    }
+
+    /**
+     * Move all positions between the previous and current simulation step.
+     *
+     * @param alpha 0 for the previous step, 1 for the current.
+     */
+    public void interpolate(final float alpha) {
+        final ImmutableBag<Entity> actives = getActives();
+        for (int i = 0, s = actives.size(); s > i; i++) {
+            final Entity e = actives.get(i);
+            store(false, e);
+
+            final int index = e.getId() * 2;
+            final Pos pos = pm.get(e);
+            final float dx = pos.x - previous[index];
+            final float dy = pos.y - previous[index + 1];
+            if (dx * dx + dy * dy < SNAP_DISTANCE * SNAP_DISTANCE) {
+                pos.x = previous[index] + dx * alpha;
+                pos.y = previous[index + 1] + dy * alpha;
+            }
+        }
+        interpolated = true;
+        this.alpha = alpha;
+    }
+
+    /**
+     * @return blend between the last two steps currently applied, 1 outside of rendering.
+     */
+    public float getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Put back the simulation state after rendering.
+     */
+    public void restore() {
+        if (!interpolated) return;
+        interpolated = false;
+        alpha = 1;
+
+        final ImmutableBag<Entity> actives = getActives();
+        for (int i = 0, s = actives.size(); s > i; i++) {
+            final Entity e = actives.get(i);
+            final int index = e.getId() * 2;
+            final Pos pos = pm.get(e);
+            pos.x = current[index];
+            pos.y = current[index + 1];
+        }
+    }
+
+    private void store(final boolean asPrevious, final Entity e) {
+        final int index = e.getId() * 2;
+        if (index + 1 >= previous.length) {
+            grow(index + 2);
+        }
+        final float[] target = asPrevious ? previous : current;
+        final Pos pos = pm.get(e);
+        target[index] = pos.x;
+        target[index + 1] = pos.y;
+    }
+
+    private void grow(final int minimum) {
+        final int capacity = Math.max(minimum, previous.length * 2);
+        final float[] newPrevious = new float[capacity];
+        System.arraycopy(previous, 0, newPrevious, 0, previous.length);
+        previous = newPrevious;
+        final float[] newCurrent = new float[capacity];
+        System.arraycopy(current, 0, newCurrent, 0, current.length);
+        current = newCurrent;
+    }
+
+    @Override
+    protected void processEntities(ImmutableBag<Entity> entities) {
+    }
+
+    @Override
+    protected boolean checkProcessing() {
+        return false;
+    }
+}
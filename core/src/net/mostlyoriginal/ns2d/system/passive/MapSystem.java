@@ -8,9 +8,11 @@ import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
 import net.mostlyoriginal.ns2d.G;
 import net.mostlyoriginal.ns2d.system.active.EntitySpawnerSystem;
 import net.mostlyoriginal.ns2d.util.MapMask;
+import net.mostlyoriginal.ns2d.util.TileChunks;
 
 /**
  * Handles map loading.
@@ -26,6 +28,11 @@ public class MapSystem extends VoidEntitySystem {
     private Array<TiledMapTileLayer> layers;
     private boolean isSetup;
 
+    // masks are shared between systems, and kept up to date by setCell.
+    private ObjectMap<String, MapMask> masks = new ObjectMap<String, MapMask>();
+    // baked layers for drawing, likewise.
+    private ObjectMap<TiledMapTileLayer, TileChunks> chunks = new ObjectMap<TiledMapTileLayer, TileChunks>();
+
     private EntitySpawnerSystem entitySpawnerSystem;
 
     @Override
@@ -41,9 +48,56 @@ public class MapSystem extends VoidEntitySystem {
         height = layers.get(0).getHeight();
     }
 
+    /** @return map width in tiles. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** @return map height in tiles. */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return shared mask of tiles with property, generated on first request.
+     */
     public MapMask getMask( String property )
     {
-        return new MapMask(height, width, layers, property);
+        MapMask mask = masks.get(property);
+        if ( mask == null )
+        {
+            mask = new MapMask(height, width, layers, property);
+            masks.put(property, mask);
+        }
+        return mask;
+    }
+
+    /**
+     * @return shared chunks of layer, baked as they are drawn.
+     */
+    public TileChunks getChunks( TiledMapTileLayer layer )
+    {
+        TileChunks result = chunks.get(layer);
+        if ( result == null )
+        {
+            result = new TileChunks(layer);
+            chunks.put(layer, result);
+        }
+        return result;
+    }
+
+    /**
+     * Change a single cell, updating any generated masks and chunks.
+     */
+    public void setCell(TiledMapTileLayer layer, int tx, int ty, TiledMapTileLayer.Cell cell) {
+        layer.setCell(tx, ty, cell);
+        for (MapMask mask : masks.values()) {
+            mask.refresh(layers, tx, ty);
+        }
+        final TileChunks layerChunks = chunks.get(layer);
+        if (layerChunks != null) {
+            layerChunks.invalidate(tx, ty);
+        }
     }
 
     /**
@@ -63,7 +117,7 @@ public class MapSystem extends VoidEntitySystem {
 
                         if ( properties.containsKey("entity")) {
                             entitySpawnerSystem.spawnEntity(tx * G.CELL_SIZE, ty * G.CELL_SIZE, properties);
-                            layer.setCell(tx, ty, null);
+                            setCell(layer, tx, ty, null);
                         }
                     }
                 }
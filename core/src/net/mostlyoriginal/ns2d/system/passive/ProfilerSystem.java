@@ -0,0 +1,206 @@
+package net.mostlyoriginal.ns2d.system.passive;
+
+import com.artemis.EntitySystem;
+import com.artemis.annotations.Wire;
+import com.artemis.systems.VoidEntitySystem;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import net.mostlyoriginal.ns2d.api.CullingSystem;
+import net.mostlyoriginal.ns2d.api.PassiveSystem;
+import net.mostlyoriginal.ns2d.util.SampleRing;
+
+/**
+ * Times every profiled system each time it is processed.
+ * <p/>
+ * Artemis does not let us wrap {@link EntitySystem#process()}, so a marker system
+ * is registered in front of each profiled system instead. A marker stops the clock for
+ * the previous system and starts it for the next, so a timing includes the entity
+ * state flush the world does right before the system runs.
+ */
+@Wire
+public class ProfilerSystem extends PassiveSystem {
+
+    /** samples kept per system, a few seconds worth at the simulation rate. */
+    public static final int SAMPLES = 300;
+
+    private final Array<Profile> profiles = new Array<Profile>();
+
+    private Profile running;
+    private long startedAt;
+
+    private FileHandle dumpFile;
+    private boolean dumpJson;
+    private float dumpInterval;
+    private float dumpCooldown;
+    private boolean headerWritten;
+    private float time;
+    private final StringBuilder line = new StringBuilder(4096);
+
+    public static class Profile {
+        public final String name;
+        public final EntitySystem system;
+        public final SampleRing nanos = new SampleRing(SAMPLES);
+        /** size of the system's actives, last time it ran. */
+        public int actives;
+        /** drawn and culled, last time it ran, for a {@link CullingSystem}. */
+        public int drawn;
+        public int culled;
+
+        public Profile(EntitySystem system) {
+            this.system = system;
+            this.name = ClassReflection.getSimpleName(system.getClass());
+        }
+
+        private void ran(long nanos) {
+            this.nanos.add(nanos);
+            actives = system.getActives().size();
+            if (system instanceof CullingSystem) {
+                drawn = ((CullingSystem) system).getDrawn();
+                culled = ((CullingSystem) system).getCulled();
+            }
+        }
+    }
+
+    /**
+     * Start profiling a system. Processing it is timed through {@link #start} and {@link #stop}.
+     */
+    public Profile profile(EntitySystem system) {
+        final Profile profile = new Profile(system);
+        profiles.add(profile);
+        return profile;
+    }
+
+    /**
+     * @return marker to register right before system, timing it while the world processes.
+     */
+    public EntitySystem markBefore(EntitySystem system) {
+        return new Mark(this, profile(system));
+    }
+
+    /**
+     * @return marker to register after the last profiled system, ends the step.
+     */
+    public EntitySystem markEnd() {
+        return new Mark(this, null);
+    }
+
+    /**
+     * @return processes system and times it. Safe to run off the main thread, as long as
+     * a system is only processed by one thread at a time.
+     */
+    public Runnable timed(EntitySystem system) {
+        final Profile profile = profile(system);
+        return new Runnable() {
+            @Override
+            public void run() {
+                final long start = TimeUtils.nanoTime();
+                profile.system.process();
+                profile.ran(TimeUtils.nanoTime() - start);
+            }
+        };
+    }
+
+    public Array<Profile> getProfiles() {
+        return profiles;
+    }
+
+    public void start(Profile profile) {
+        stop();
+        running = profile;
+        startedAt = TimeUtils.nanoTime();
+    }
+
+    public void stop() {
+        if (running != null) {
+            running.ran(TimeUtils.nanoTime() - startedAt);
+            running = null;
+        }
+    }
+
+    /**
+     * Periodically append all profiles to a file, as CSV or as one JSON object per line.
+     *
+     * @param file null to stop dumping.
+     * @param interval seconds of simulation between dumps.
+     */
+    public void dumpTo(FileHandle file, boolean json, float interval) {
+        dumpFile = file;
+        dumpJson = json;
+        dumpInterval = interval;
+        dumpCooldown = interval;
+        headerWritten = false;
+    }
+
+    private void stepDone(float delta) {
+        stop();
+        time += delta;
+        if (dumpFile != null) {
+            dumpCooldown -= delta;
+            if (dumpCooldown <= 0) {
+                dumpCooldown += dumpInterval;
+                dump();
+            }
+        }
+    }
+
+    private void dump() {
+        line.setLength(0);
+        if (!dumpJson && !headerWritten) {
+            line.append("time,system,last_ns,p50_ns,p95_ns,p99_ns,actives,drawn,culled\n");
+            headerWritten = true;
+        }
+        for (int i = 0; i < profiles.size; i++) {
+            final Profile profile = profiles.get(i);
+            if (dumpJson) {
+                line.append("{\"time\":").append(time)
+                        .append(",\"system\":\"").append(profile.name)
+                        .append("\",\"last_ns\":").append(profile.nanos.last())
+                        .append(",\"p50_ns\":").append(profile.nanos.percentile(0.50f))
+                        .append(",\"p95_ns\":").append(profile.nanos.percentile(0.95f))
+                        .append(",\"p99_ns\":").append(profile.nanos.percentile(0.99f))
+                        .append(",\"actives\":").append(profile.actives)
+                        .append(",\"drawn\":").append(profile.drawn)
+                        .append(",\"culled\":").append(profile.culled)
+                        .append("}\n");
+            } else {
+                line.append(time)
+                        .append(',').append(profile.name)
+                        .append(',').append(profile.nanos.last())
+                        .append(',').append(profile.nanos.percentile(0.50f))
+                        .append(',').append(profile.nanos.percentile(0.95f))
+                        .append(',').append(profile.nanos.percentile(0.99f))
+                        .append(',').append(profile.actives)
+                        .append(',').append(profile.drawn)
+                        .append(',').append(profile.culled)
+                        .append('\n');
+            }
+        }
+        dumpFile.writeString(line.toString(), true);
+    }
+
+    /**
+     * Switches the clock to the next system, or ends the step.
+     */
+    private static class Mark extends VoidEntitySystem {
+
+        private final ProfilerSystem profiler;
+        private final Profile profile;
+
+        public Mark(ProfilerSystem profiler, Profile profile) {
+            this.profiler = profiler;
+            this.profile = profile;
+        }
+
+        @Override
+        protected void processSystem() {
+            if (profile != null) {
+                profiler.start(profile);
+            } else {
+                profiler.stepDone(world.delta);
+            }
+        }
+    }
+}
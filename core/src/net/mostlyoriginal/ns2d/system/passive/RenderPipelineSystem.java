@@ -0,0 +1,135 @@
+package net.mostlyoriginal.ns2d.system.passive;
+
+import com.artemis.annotations.Wire;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import net.mostlyoriginal.ns2d.api.PassiveSystem;
+
+/**
+ * One batch per camera, shared by all render systems.
+ * <p/>
+ * Render systems ask for the batch of their pass and draw into it, without a begin or end
+ * of their own. Consecutive systems on the same pass and shader share one open batch, so
+ * it only flushes when the texture or shader changes, when it fills up, or when the frame
+ * moves on to the other pass. Systems that draw without the batch call {@link #finish()} first.
+ */
+@Wire
+public class RenderPipelineSystem extends PassiveSystem {
+
+    public enum Pass {
+        /** world coordinates, {@link CameraSystem#camera}. */
+        WORLD,
+        /** screen coordinates, {@link CameraSystem#guiCamera}. */
+        GUI
+    }
+
+    public static final int WORLD_BATCH_SIZE = 2000;
+
+    private CameraSystem cameraSystem;
+
+    private final Batch[] batches;
+    private Pass open;
+    private ShaderProgram shader;
+
+    // this frame so far.
+    private int framePasses;
+    private int frameFlushes;
+    private int frameDrawCalls;
+
+    /** batches begun during the last frame. */
+    public int passes;
+    /** flushes caused by switching pass or shader during the last frame. */
+    public int flushes;
+    /** draw calls the batches issued during the last frame, including texture switches. */
+    public int drawCalls;
+
+    public RenderPipelineSystem() {
+        this(new SpriteBatch(WORLD_BATCH_SIZE), new SpriteBatch());
+    }
+
+    public RenderPipelineSystem(Batch worldBatch, Batch guiBatch) {
+        batches = new Batch[]{worldBatch, guiBatch};
+    }
+
+    /**
+     * @return batch of pass, to hand to renderers that draw into it.
+     */
+    public Batch getBatch(Pass pass) {
+        return batches[pass.ordinal()];
+    }
+
+    /**
+     * Start drawing on pass with the default shader.
+     *
+     * @return begun batch, color reset to white.
+     */
+    public Batch begin(Pass pass) {
+        return begin(pass, null);
+    }
+
+    /**
+     * Start drawing on pass. Continues the open batch if it is on the same pass.
+     *
+     * @param shader shader to draw with, null for the default.
+     * @return begun batch, color reset to white.
+     */
+    public Batch begin(Pass pass, ShaderProgram shader) {
+        final Batch batch = batches[pass.ordinal()];
+        if (open != pass) {
+            finish();
+            batch.setShader(shader);
+            batch.setProjectionMatrix(projection(pass));
+            batch.begin();
+            this.shader = shader;
+            open = pass;
+            framePasses++;
+        } else if (this.shader != shader) {
+            batch.setShader(shader);
+            this.shader = shader;
+            frameFlushes++;
+        }
+        batch.setColor(1f, 1f, 1f, 1f);
+        return batch;
+    }
+
+    /**
+     * End the open batch, if any.
+     */
+    public void finish() {
+        if (open == null) return;
+        final Batch batch = batches[open.ordinal()];
+        batch.end();
+        frameDrawCalls += renderCalls(batch);
+        frameFlushes++;
+        open = null;
+    }
+
+    /**
+     * Finish the frame, and publish its counters.
+     */
+    public void endFrame() {
+        finish();
+        passes = framePasses;
+        flushes = frameFlushes;
+        drawCalls = frameDrawCalls;
+        framePasses = 0;
+        frameFlushes = 0;
+        frameDrawCalls = 0;
+    }
+
+    /**
+     * @return draw calls batch issued since it began.
+     */
+    protected int renderCalls(Batch batch) {
+        return batch instanceof SpriteBatch ? ((SpriteBatch) batch).renderCalls : 0;
+    }
+
+    /**
+     * @return projection to begin pass with.
+     */
+    protected Matrix4 projection(Pass pass) {
+        return pass == Pass.WORLD ? cameraSystem.camera.combined : cameraSystem.guiCamera.combined;
+    }
+}
@@ -0,0 +1,132 @@
+package net.mostlyoriginal.ns2d.system.passive;
+
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.annotations.Wire;
+import com.artemis.managers.GroupManager;
+import com.artemis.systems.VoidEntitySystem;
+import com.artemis.utils.Bag;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import net.mostlyoriginal.ns2d.G;
+import net.mostlyoriginal.ns2d.api.ScheduledSystem;
+import net.mostlyoriginal.ns2d.api.SystemAccess;
+import net.mostlyoriginal.ns2d.component.Bounds;
+import net.mostlyoriginal.ns2d.component.Pos;
+import net.mostlyoriginal.ns2d.util.SpatialHash;
+
+/**
+ * Broad phase index of group members by {@link Pos} and {@link Bounds}.
+ * <p/>
+ * Each group gets its own grid, rebuilt lazily on the first query of a frame.
+ * Run this system after movement, so queries see final positions.
+ * Queries do not allocate.
+ */
+@Wire
+public class SpatialIndexSystem extends VoidEntitySystem implements ScheduledSystem {
+
+    public static final int CELL_SIZE = G.CELL_SIZE * 2;
+
+    private MapSystem mapSystem;
+    private GroupManager groupManager;
+
+    private ComponentMapper<Pos> pm;
+    private ComponentMapper<Bounds> bm;
+
+    private final ObjectMap<String, SpatialHash> indices = new ObjectMap<String, SpatialHash>();
+    private final ObjectIntMap<String> builtInFrame = new ObjectIntMap<String>();
+    private final IntArray found = new IntArray();
+    private int frame;
+
+    @Override
+    protected void processSystem() {
+        // invalidate all groups, positions have changed.
+        frame++;
+    }
+
+    public interface Callback {
+        void found(Entity e);
+    }
+
+    /**
+     * @return empty index covering the whole map.
+     */
+    public SpatialHash createIndex() {
+        return new SpatialHash(CELL_SIZE,
+                (mapSystem.getWidth() * G.CELL_SIZE) / CELL_SIZE + 1,
+                (mapSystem.getHeight() * G.CELL_SIZE) / CELL_SIZE + 1);
+    }
+
+    /**
+     * @return index of all group members with a position, up to date for this frame.
+     */
+    public SpatialHash getIndex(final String group) {
+        SpatialHash index = indices.get(group);
+        if (index == null) {
+            index = createIndex();
+            indices.put(group, index);
+        } else if (builtInFrame.get(group, -1) == frame) {
+            return index;
+        }
+
+        builtInFrame.put(group, frame);
+        index.clear();
+
+        final ImmutableBag<Entity> members = groupManager.getEntities(group);
+        for (int i = 0, s = members.size(); s > i; i++) {
+            final Entity e = members.get(i);
+            if (e == null || !pm.has(e)) continue;
+
+            final Pos pos = pm.get(e);
+            if (bm.has(e)) {
+                final Bounds bounds = bm.get(e);
+                index.insert(e, pos.x, pos.y, true, pos.x + bounds.x1, pos.y + bounds.y1, pos.x + bounds.x2, pos.y + bounds.y2);
+            } else {
+                index.insert(e, pos.x, pos.y);
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Find group members overlapping an entity, same rules as {@link CollisionSystem#overlaps}.
+     *
+     * @param result cleared, then filled with overlapping members in group order.
+     * @return number of overlapping members.
+     */
+    public int overlapping(final String group, final Entity e, final Bag<Entity> result) {
+        if (!pm.has(e) || !bm.has(e)) {
+            result.clear();
+            return 0;
+        }
+
+        final Pos pos = pm.get(e);
+        final Bounds bounds = bm.get(e);
+        return getIndex(group).query(pos.x + bounds.x1, pos.y + bounds.y1, pos.x + bounds.x2, pos.y + bounds.y2, result);
+    }
+
+    /**
+     * Report group members with their {@link Pos} within radius of x,y.
+     * <p/>
+     * Members are collected before the callback is invoked, so the callback
+     * is free to damage or delete them. Reported in group order.
+     *
+     * @return number of members reported.
+     */
+    public int queryRadius(final String group, final float x, final float y, final float radius, final Callback callback) {
+        final SpatialHash index = getIndex(group);
+        final int count = index.queryRadius(x, y, radius, found);
+        for (int i = 0; i < count; i++) {
+            callback.found(index.get(found.get(i)));
+        }
+        return count;
+    }
+
+    @Override
+    public void declareAccess(SystemAccess access) {
+        access.writes(SpatialIndexSystem.class);
+    }
+}
@@ -5,46 +5,56 @@ import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.EntitySystem;
 import com.artemis.annotations.Wire;
+import com.artemis.utils.Bag;
 import com.artemis.utils.ImmutableBag;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import net.mostlyoriginal.ns2d.api.CullingSystem;
 import net.mostlyoriginal.ns2d.component.Anim;
 import net.mostlyoriginal.ns2d.component.Pos;
+import net.mostlyoriginal.ns2d.system.active.ParticleSystem;
 import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
 import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
-
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
+import net.mostlyoriginal.ns2d.util.LayerBuckets;
+import net.mostlyoriginal.ns2d.util.SpriteRegistry;
 
 /**
+ * Draws entities with an {@link Anim} by layer, with each layer's particles on top.
+ * <p/>
+ * Entities are kept in a bucket per layer instead of a sorted list. Changes to
+ * {@link Anim#layer} are picked up while drawing, and applied before the next frame.
+ * Sprites out of the camera's view are not drawn, but keep animating. Sprites are looked up
+ * by the handle {@link AssetSystem#resolve(Anim)} keeps on the Anim, not by string.
+ *
  * @author Daan van Yperen
  */
 @Wire
-public class AnimRenderSystem extends EntitySystem {
+public class AnimRenderSystem extends EntitySystem implements CullingSystem {
 
     private ComponentMapper<Pos> pm;
     private ComponentMapper<Anim> sm;
     private CameraSystem cameraSystem;
     private AssetSystem assetSystem;
+    private ParticleSystem particleSystem;
+    private RenderPipelineSystem renderPipelineSystem;
 
-    private SpriteBatch batch;
+    private static final Anim.Layer[] LAYERS = Anim.Layer.values();
 
+    private Batch batch;
 
-    private List<Entity> sortedEntities = new ArrayList<Entity>();
-    private boolean sortedDirty = false;
+    private final LayerBuckets buckets = new LayerBuckets(LAYERS.length);
+    // entities drawn in a bucket that no longer matches their layer.
+    private final Bag<Entity> relayered = new Bag<Entity>();
+    private boolean layersDirty;
 
-    public Comparator<Entity> layerSortComperator = new Comparator<Entity>() {
-        @Override
-        public int compare(Entity e1, Entity e2) {
-            return sm.get(e1).layer.compareTo(sm.get(e2).layer);
-        }
-    };
+    private int drawn;
+    private int culled;
 
     private float age;
+    private com.badlogic.gdx.graphics.g2d.Animation[] animations;
     public final ShaderProgram shimmerProgram;
 
     public AnimRenderSystem() {
@@ -52,35 +62,53 @@ public class AnimRenderSystem extends EntitySystem {
 
         shimmerProgram = new ShaderProgram(Gdx.files.internal("shader/shimmer.vertex"), Gdx.files.internal("shader/shimmer.fragment"));
         if ( !shimmerProgram.isCompiled() ) throw new RuntimeException("Compilation failed." + shimmerProgram.getLog());
-        batch  = new SpriteBatch(2000, shimmerProgram);
+    }
+
+    @Override
+    public int getDrawn() {
+        return drawn;
+    }
+
+    @Override
+    public int getCulled() {
+        return culled;
     }
 
     @Override
     protected void begin() {
+        drawn = 0;
+        culled = 0;
 
         age += world.delta;
+        animations = assetSystem.sprites.animations;
 
-        batch.setProjectionMatrix(cameraSystem.camera.combined);
-        batch.begin();
+        batch = renderPipelineSystem.begin(RenderPipelineSystem.Pass.WORLD, shimmerProgram);
         shimmerProgram.setUniformf("iGlobalTime", age);
-        batch.setColor(1f, 1f, 1f, 1f);
-    }
-
-    @Override
-    protected void end() {
-        batch.end();
     }
 
     @Override
     protected void processEntities(ImmutableBag<Entity> entities) {
 
-        if (sortedDirty) {
-            sortedDirty = false;
-            Collections.sort(sortedEntities, layerSortComperator);
+        for (int layer = 0; layer < LAYERS.length; layer++) {
+            final ImmutableBag<Entity> bucket = buckets.get(layer);
+            for (int i = 0, s = bucket.size(); s > i; i++) {
+                final Entity entity = bucket.get(i);
+                if (sm.get(entity).layer.ordinal() != layer) {
+                    relayered.add(entity);
+                    layersDirty = true;
+                }
+                process(entity);
+            }
+            particleSystem.render(batch, LAYERS[layer]);
         }
 
-        for (Entity entity : sortedEntities) {
-            process(entity);
+        if (layersDirty) {
+            layersDirty = false;
+            for (int i = 0, s = relayered.size(); s > i; i++) {
+                final Entity entity = relayered.get(i);
+                buckets.move(entity, sm.get(entity).layer.ordinal());
+            }
+            relayered.clear();
         }
     }
 
@@ -89,16 +117,45 @@ public class AnimRenderSystem extends EntitySystem {
         final Anim anim = sm.get(entity);
         final Pos pos = pm.get(entity);
 
+        // off screen animations keep ageing, so they are in the right frame when they show up.
         anim.age += world.delta * anim.speed;
 
+        final int sprite = assetSystem.resolve(anim);
+        if ( sprite == SpriteRegistry.NONE ) return;
+        final com.badlogic.gdx.graphics.g2d.Animation gdxanim = animations[sprite];
+
+        if ( !inView(anim, pos, gdxanim.getKeyFrames()[0]) ) {
+            culled++;
+            return;
+        }
+        drawn++;
+
         batch.setColor( anim.color );
-        drawAnimation(anim, pos, anim.id);
+        drawAnimation(anim, pos, gdxanim);
     }
 
-    private void drawAnimation(final Anim animation, final Pos position, String id) {
+    /**
+     * @return TRUE if any part of the sprite may be on screen, at its scale and rotation.
+     */
+    private boolean inView(final Anim anim, final Pos pos, final TextureRegion frame) {
+        final float x = (int) pos.x;
+        final float y = (int) pos.y;
+        final float width = frame.getRegionWidth() * anim.scale;
+        final float height = frame.getRegionHeight() * anim.scale;
+        if ( anim.rotation == 0 ) {
+            return cameraSystem.inView(x, y, x + width, y + height);
+        }
+
+        // spinning about its origin, the sprite stays within reach of its farthest corner.
+        final float ox = anim.ox == Anim.ORIGIN_AUTO ? width * 0.5f : anim.ox;
+        final float oy = anim.oy == Anim.ORIGIN_AUTO ? height * 0.5f : anim.oy;
+        final float dx = Math.max(Math.abs(ox), Math.abs(width - ox));
+        final float dy = Math.max(Math.abs(oy), Math.abs(height - oy));
+        final float reach = (float) Math.sqrt(dx * dx + dy * dy);
+        return cameraSystem.inView(x + ox - reach, y + oy - reach, x + ox + reach, y + oy + reach);
+    }
 
-        final com.badlogic.gdx.graphics.g2d.Animation gdxanim = assetSystem.get(id);
-        if ( gdxanim == null) return;
+    private void drawAnimation(final Anim animation, final Pos position, final com.badlogic.gdx.graphics.g2d.Animation gdxanim) {
 
         final TextureRegion frame = gdxanim.getKeyFrame(animation.age, true);
 
@@ -148,12 +205,11 @@ public class AnimRenderSystem extends EntitySystem {
 
     @Override
     protected void inserted(Entity e) {
-        sortedEntities.add(e);
-        sortedDirty = true;
+        buckets.add(e, sm.get(e).layer.ordinal());
     }
 
     @Override
     protected void removed(Entity e) {
-        sortedEntities.remove(e);
+        buckets.remove(e);
     }
 }
@@ -7,13 +7,21 @@ import com.artemis.annotations.Wire;
 import com.artemis.managers.TagManager;
 import com.artemis.systems.EntityProcessingSystem;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.StringBuilder;
 import net.mostlyoriginal.ns2d.component.*;
 import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
 import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
 import net.mostlyoriginal.ns2d.system.passive.CollisionSystem;
+import net.mostlyoriginal.ns2d.util.CachedText;
 
 /**
+ * Price tags above unbuilt structures.
+ * <p/>
+ * Labels are laid out once per price, and reused by every structure with that price.
+ *
  * @author Daan van Yperen
  */
 @Wire
@@ -32,31 +40,34 @@ public class CostRenderSystem extends EntityProcessingSystem {
     private AssetSystem assetSystem;
     private TagManager tagManager;
 
-    private SpriteBatch batch = new SpriteBatch();
+    private RenderPipelineSystem renderPipelineSystem;
+    private Batch batch;
     private int walletCash;
     private CollisionSystem collisionSystem;
     public Entity player;
 
+    private final IntMap<CachedText> costs = new IntMap<CachedText>();
+    private final StringBuilder line = new StringBuilder(16);
+    private CachedText purchase;
+
     public CostRenderSystem() {
         super(Aspect.getAspectForAll(Pos.class, Anim.class, Bounds.class, Buildable.class));
     }
 
+    @Override
+    protected void initialize() {
+        purchase = new CachedText(assetSystem.font).setText("'e' to purchase");
+    }
+
     @Override
     protected void begin() {
-        batch.setProjectionMatrix(cameraSystem.camera.combined);
-        batch.begin();
-        batch.setColor(1f, 1f, 1f, 1f);
+        batch = renderPipelineSystem.begin(RenderPipelineSystem.Pass.WORLD);
 
         player = tagManager.getEntity("player");
         walletCash = wm.has(player) ? wm.get(player).resources : 0;
 
     }
 
-    @Override
-    protected void end() {
-        batch.end();
-    }
-
     @Override
     protected void process(Entity e) {
         final Buildable buildable = bm.get(e);
@@ -67,14 +78,24 @@ public class CostRenderSystem extends EntityProcessingSystem {
 
             boolean affordable = buildable.resourceCost <= walletCash;
             assetSystem.font.setColor(affordable ? HOLO_COLOR : HOLO_COLOR_RED );
-            String cost = "" + buildable.resourceCost + "$";
-            assetSystem.font.draw(batch, cost, pos.x + bounds.cx() - assetSystem.font.getBounds(cost).width/2, pos.y +  bounds.y2 + 20);
+            final CachedText cost = cost(buildable.resourceCost);
+            cost.draw(batch, pos.x + bounds.cx() - cost.width/2, pos.y +  bounds.y2 + 20);
 
             if ( collisionSystem.overlaps(player, e) && affordable )
             {
-                String msg = "'e' to purchase";
-                assetSystem.font.draw(batch, msg, pos.x + bounds.cx() - assetSystem.font.getBounds(msg).width/2, pos.y +  bounds.y2 + 32);
+                purchase.draw(batch, pos.x + bounds.cx() - purchase.width/2, pos.y +  bounds.y2 + 32);
             }
         }
     }
+
+    private CachedText cost(int resourceCost) {
+        CachedText cost = costs.get(resourceCost);
+        if (cost == null) {
+            line.setLength(0);
+            line.append(resourceCost).append('$');
+            cost = new CachedText(assetSystem.font).setText(line);
+            costs.put(resourceCost, cost);
+        }
+        return cost;
+    }
 }
@@ -6,13 +6,15 @@ import com.artemis.annotations.Wire;
 import com.artemis.managers.TagManager;
 import com.artemis.systems.VoidEntitySystem;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
 import net.mostlyoriginal.ns2d.component.*;
 import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
 import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
+import net.mostlyoriginal.ns2d.util.CachedText;
 
 /**
  * @author Daan van Yperen
@@ -29,6 +31,7 @@ public class DialogRenderSystem extends VoidEntitySystem {
     private Array<String> messages = new Array<String>();
     private String activeMessage = null;
     private float activeMessageCooldown = 0;
+    private CachedText text;
 
     private static final Color HOLO_COLOR = Color.valueOf("73BCC9");
     private static final Color HOLO_COLOR_RED = Color.valueOf("FF7799");
@@ -37,7 +40,7 @@ public class DialogRenderSystem extends VoidEntitySystem {
     private AssetSystem assetSystem;
     private TagManager tagManager;
 
-    private SpriteBatch batch = new SpriteBatch();
+    private RenderPipelineSystem renderPipelineSystem;
     private int walletCash;
     public TextureRegion west;
     public TextureRegion middle;
@@ -137,6 +140,7 @@ public class DialogRenderSystem extends VoidEntitySystem {
     @Override
     protected void initialize() {
         super.initialize();
+        text = new CachedText(assetSystem.font, 64);
     }
 
     public void randomSay(final String[] messages) {
@@ -158,9 +162,7 @@ public class DialogRenderSystem extends VoidEntitySystem {
         }
 
         if (activeMessage != null) {
-            batch.setProjectionMatrix(cameraSystem.camera.combined);
-            batch.begin();
-            batch.setColor(1f, 1f, 1f, 1f);
+            final Batch batch = renderPipelineSystem.begin(RenderPipelineSystem.Pass.WORLD);
 
             final Entity player = tagManager.getEntity("player");
             pos = pm.get(player);
@@ -174,7 +176,7 @@ public class DialogRenderSystem extends VoidEntitySystem {
 
             final int dialogX = (int) pos.x + 8;
             final int dialogY = (int) pos.y + 32;
-            final int middleWidth = (int) assetSystem.font.getBounds(activeMessage).width + 1;
+            final int middleWidth = (int) text.setText(activeMessage).width + 1;
 
             batch.getColor().a = alpha;
             batch.draw(west, dialogX, dialogY);
@@ -182,12 +184,10 @@ public class DialogRenderSystem extends VoidEntitySystem {
             batch.draw(east, dialogX + 16 + middleWidth, dialogY, 16, 38);
             assetSystem.font.setColor(Color.BLACK);
             assetSystem.font.getColor().a = alpha;
-            assetSystem.font.draw(batch, activeMessage, dialogX + 17, dialogY + 31);
+            text.draw(batch, dialogX + 17, dialogY + 31);
             assetSystem.font.setColor(Color.WHITE);
             assetSystem.font.getColor().a = alpha;
-            assetSystem.font.draw(batch, activeMessage, dialogX + 16, dialogY + 32);
-
-            batch.end();
+            text.draw(batch, dialogX + 16, dialogY + 32);
         }
     }
 }
@@ -6,17 +6,21 @@ import com.artemis.Entity;
 import com.artemis.annotations.Wire;
 import com.artemis.systems.EntityProcessingSystem;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import net.mostlyoriginal.ns2d.api.CullingSystem;
 import net.mostlyoriginal.ns2d.component.*;
 import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
 import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
 
 /**
+ * Health bars above entities. Bars out of the camera's view are skipped.
+ *
  * @author Daan van Yperen
  */
 @Wire
-public class HealthRenderSystem extends EntityProcessingSystem {
+public class HealthRenderSystem extends EntityProcessingSystem implements CullingSystem {
 
     private ComponentMapper<Pos> pm;
     private ComponentMapper<Bounds> om;
@@ -27,10 +31,14 @@ public class HealthRenderSystem extends EntityProcessingSystem {
     private CameraSystem cameraSystem;
     private AssetSystem assetSystem;
 
-    private SpriteBatch batch = new SpriteBatch();
+    private RenderPipelineSystem renderPipelineSystem;
+    private Batch batch;
     public TextureRegion tick;
     public int tickWidth;
 
+    private int drawn;
+    private int culled;
+
     public HealthRenderSystem() {
         super(Aspect.getAspectForAll(Pos.class, Bounds.class, Health.class, HealthIndicator.class));
     }
@@ -44,14 +52,9 @@ public class HealthRenderSystem extends EntityProcessingSystem {
 
     @Override
     protected void begin() {
-        batch.setProjectionMatrix(cameraSystem.camera.combined);
-        batch.begin();
-        batch.setColor(1f, 1f, 1f, 1f);
-    }
-
-    @Override
-    protected void end() {
-        batch.end();
+        drawn = 0;
+        culled = 0;
+        batch = renderPipelineSystem.begin(RenderPipelineSystem.Pass.WORLD);
     }
 
     @Override
@@ -71,9 +74,26 @@ public class HealthRenderSystem extends EntityProcessingSystem {
 
         //ticks = width / tickWidth;
 
+        final float y = pos.y + bounds.y2 + 10;
+        if ( !cameraSystem.inView(pos.x, y, pos.x + ticks * tickWidth + tick.getRegionWidth(), y + tick.getRegionHeight()) ) {
+            culled++;
+            return;
+        }
+        drawn++;
+
         for ( int i=0; i< ticks; i++ )
         {
-            batch.draw(tick, pos.x + i * tickWidth, pos.y + bounds.y2 + 10 );
+            batch.draw(tick, pos.x + i * tickWidth, y );
         }
     }
+
+    @Override
+    public int getDrawn() {
+        return drawn;
+    }
+
+    @Override
+    public int getCulled() {
+        return culled;
+    }
 }
@@ -1,14 +1,23 @@
 package net.mostlyoriginal.ns2d.system.render;
 
 import com.artemis.annotations.Wire;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.maps.MapLayer;
 import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
-import net.mostlyoriginal.ns2d.MyMapRendererImpl;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.badlogic.gdx.utils.Array;
+import net.mostlyoriginal.ns2d.api.PassiveSystem;
 import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
 import net.mostlyoriginal.ns2d.system.passive.MapSystem;
-import net.mostlyoriginal.ns2d.api.PassiveSystem;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
+import net.mostlyoriginal.ns2d.util.TileChunks;
 
 /**
+ * Map layers behind the entities.
+ * <p/>
+ * Layers are drawn from chunks {@link MapSystem} bakes once, only the chunks in view.
+ *
  * @author Daan van Yperen
  */
 @Wire
@@ -16,28 +25,33 @@ public class MapRenderSystem extends PassiveSystem {
 
     private MapSystem mapSystem;
     private CameraSystem cameraSystem;
+    private RenderPipelineSystem renderPipelineSystem;
 
-    public MyMapRendererImpl renderer;
-
+    private final Array<TileChunks> layers = new Array<TileChunks>();
 
     @Override
     protected void initialize() {
-        renderer = new MyMapRendererImpl(mapSystem.map);
+        for (MapLayer layer : mapSystem.map.getLayers()) {
+            if (!layer.getName().equals("infront")) {
+                layers.add(mapSystem.getChunks((TiledMapTileLayer) layer));
+            }
+        }
     }
 
     @Override
     protected void processSystem() {
-        for (MapLayer layer : mapSystem.map.getLayers()) {
-      			if (layer.isVisible()) {
-      				if (!layer.getName().equals("infront")) {
-                        renderLayer((TiledMapTileLayer) layer);
-                    }
-                }
+        final Batch batch = renderPipelineSystem.begin(RenderPipelineSystem.Pass.WORLD);
+        AnimatedTiledMapTile.updateAnimationBaseTime();
+
+        final OrthographicCamera camera = cameraSystem.camera;
+        final float halfWidth = camera.viewportWidth * camera.zoom * 0.5f;
+        final float halfHeight = camera.viewportHeight * camera.zoom * 0.5f;
+        for (int i = 0; i < layers.size; i++) {
+            final TileChunks chunks = layers.get(i);
+            if (chunks.layer.isVisible()) {
+                chunks.render(batch, camera.position.x - halfWidth, camera.position.y - halfHeight,
+                        camera.position.x + halfWidth, camera.position.y + halfHeight);
+            }
         }
     }
-
-    private void renderLayer(final TiledMapTileLayer layer) {
-        renderer.setView(cameraSystem.camera);
-        renderer.renderLayer(layer);
-    }
 }
@@ -11,13 +11,14 @@ import com.artemis.annotations.Wire;
 import com.artemis.managers.TagManager;
 import com.artemis.systems.EntityProcessingSystem;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import net.mostlyoriginal.ns2d.component.*;
 import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
 import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
 
 @Wire
 public class UIAlertBuildableUnderAttack extends EntityProcessingSystem {
@@ -38,26 +39,20 @@ public class UIAlertBuildableUnderAttack extends EntityProcessingSystem {
 
     private CameraSystem cameraSystem;
     private AssetSystem assetSystem;
-    private SpriteBatch batch = new SpriteBatch();
+    private RenderPipelineSystem renderPipelineSystem;
+    private Batch batch;
 
     private TagManager tagManager;
 
     @Override
     protected void begin() {
-        batch.setProjectionMatrix(cameraSystem.camera.combined);
-        batch.begin();
-        batch.setColor(1f, 1f, 1f, 1f);
+        batch = renderPipelineSystem.begin(RenderPipelineSystem.Pass.WORLD);
 
         player = tagManager.getEntity("player");
         arrowImage = assetSystem.get("alert-arrow").getKeyFrame(0);
         radarImage = assetSystem.get("alert-damage").getKeyFrame(0);
     }
 
-    @Override
-    protected void end() {
-        batch.end();
-    }
-
     Vector2 vTmp = new Vector2();
     float age;
     float lastAlertCooldown = 0;
@@ -0,0 +1,170 @@
+package net.mostlyoriginal.ns2d.system.render;
+
+import com.artemis.annotations.Wire;
+import com.artemis.managers.GroupManager;
+import com.artemis.systems.VoidEntitySystem;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.badlogic.gdx.utils.TimeUtils;
+import net.mostlyoriginal.ns2d.system.active.ParticleSystem;
+import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
+import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
+import net.mostlyoriginal.ns2d.system.passive.ProfilerSystem;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
+import net.mostlyoriginal.ns2d.util.TextFormat;
+
+/**
+ * Performance overlay, toggled with F3.
+ * <p/>
+ * Shows frame rate, a frame time graph, live entities, particles, drawn and culled sprites,
+ * batch passes, flushes and draw calls of the last frame, and the most expensive systems.
+ * Text is only rebuilt a few times per second, into a pre-sized builder and a cached
+ * glyph layout, so leaving the overlay on does not distort what it measures.
+ */
+@Wire
+public class UIPerformanceRenderSystem extends VoidEntitySystem {
+
+    private static final Color HOLO_COLOR = Color.valueOf("73BCC9");
+    private static final Color SLOW_COLOR = Color.valueOf("FF7799");
+    private static final int TOGGLE_KEY = Input.Keys.F3;
+    private static final int FRAMES = 120;
+    private static final int TOP_SYSTEMS = 5;
+    private static final float REFRESH_INTERVAL = 0.5f;
+    private static final String[] GROUPS = {"enemy", "player-friend", "duct"};
+
+    /** frames slower than this are drawn in red, and scale the graph. */
+    private static final float TARGET_FRAME_MS = 1000 / 60f;
+
+    private CameraSystem cameraSystem;
+    private AssetSystem assetSystem;
+    private ProfilerSystem profilerSystem;
+    private GroupManager groupManager;
+    private ParticleSystem particleSystem;
+
+    private RenderPipelineSystem renderPipelineSystem;
+    private ShapeRenderer shapes = new ShapeRenderer();
+    private BitmapFontCache text;
+    private final StringBuilder line = new StringBuilder(1024);
+
+    public boolean visible;
+    private boolean togglePressed;
+
+    // frame times in milliseconds, oldest at frameIndex.
+    private final float[] frames = new float[FRAMES];
+    private int frameIndex;
+    private long lastFrameAt;
+    private float refreshCooldown;
+
+    private final int[] top = new int[TOP_SYSTEMS];
+
+    @Override
+    protected void initialize() {
+        text = new BitmapFontCache(assetSystem.font);
+        text.setColor(HOLO_COLOR);
+    }
+
+    @Override
+    protected void processSystem() {
+        final long now = TimeUtils.nanoTime();
+        if (lastFrameAt != 0) {
+            frames[frameIndex] = (now - lastFrameAt) / 1000000f;
+            frameIndex = (frameIndex + 1) % FRAMES;
+        }
+        lastFrameAt = now;
+
+        final boolean pressed = Gdx.input.isKeyPressed(TOGGLE_KEY);
+        if (pressed && !togglePressed) {
+            visible = !visible;
+            refreshCooldown = 0;
+        }
+        togglePressed = pressed;
+
+        if (!visible) return;
+
+        refreshCooldown -= world.delta;
+        if (refreshCooldown <= 0) {
+            refreshCooldown = REFRESH_INTERVAL;
+            refreshText();
+        }
+
+        final float left = 5;
+        final float top = Gdx.graphics.getHeight() / 2 - 5;
+
+        // shapes draw outside the pipeline, anything pending goes first.
+        renderPipelineSystem.finish();
+        shapes.setProjectionMatrix(cameraSystem.guiCamera.combined);
+        shapes.begin(ShapeRenderer.ShapeType.Filled);
+        for (int i = 0; i < FRAMES; i++) {
+            final float ms = frames[(frameIndex + i) % FRAMES];
+            shapes.setColor(ms > TARGET_FRAME_MS * 1.5f ? SLOW_COLOR : HOLO_COLOR);
+            shapes.rect(left + i, top - 40, 1, Math.min(ms / TARGET_FRAME_MS, 2) * 20);
+        }
+        shapes.end();
+
+        text.setPosition(left, top - 45);
+        text.draw(renderPipelineSystem.begin(RenderPipelineSystem.Pass.GUI));
+    }
+
+    private void refreshText() {
+        line.setLength(0);
+
+        line.append("FPS ").append(Gdx.graphics.getFramesPerSecond()).append("  frame ");
+        TextFormat.appendHundredths(line, frames[(frameIndex + FRAMES - 1) % FRAMES]);
+        line.append("ms\n");
+
+        line.append("entities ").append(world.getEntityManager().getActiveEntityCount());
+        for (String group : GROUPS) {
+            line.append("  ").append(group).append(' ').append(groupManager.getEntities(group).size());
+        }
+        line.append("  particles ").append(particleSystem.size());
+        line.append('\n');
+
+        final Array<ProfilerSystem.Profile> profiles = profilerSystem.getProfiles();
+        int drawn = 0, culled = 0;
+        for (int i = 0; i < profiles.size; i++) {
+            drawn += profiles.get(i).drawn;
+            culled += profiles.get(i).culled;
+        }
+        line.append("drawn ").append(drawn).append("  culled ").append(culled)
+                .append("  passes ").append(renderPipelineSystem.passes)
+                .append("  flushes ").append(renderPipelineSystem.flushes)
+                .append("  draw calls ").append(renderPipelineSystem.drawCalls).append('\n');
+
+        line.append("system p50/p95 ms, actives\n");
+        final int count = selectTop(profiles);
+        for (int i = 0; i < count; i++) {
+            final ProfilerSystem.Profile profile = profiles.get(top[i]);
+            line.append(profile.name).append(' ');
+            TextFormat.appendHundredths(line, profile.nanos.percentile(0.50f) / 1000000f);
+            line.append('/');
+            TextFormat.appendHundredths(line, profile.nanos.percentile(0.95f) / 1000000f);
+            line.append(", ").append(profile.actives).append('\n');
+        }
+
+        text.setMultiLineText(line, 0, 0);
+    }
+
+    /**
+     * Pick the systems with the highest median into top, most expensive first.
+     *
+     * @return number of systems picked.
+     */
+    private int selectTop(Array<ProfilerSystem.Profile> profiles) {
+        int count = 0;
+        for (int i = 0; i < profiles.size; i++) {
+            final long cost = profiles.get(i).nanos.percentile(0.50f);
+            int slot = count < TOP_SYSTEMS ? count++ : TOP_SYSTEMS;
+            while (slot > 0 && profiles.get(top[slot - 1]).nanos.percentile(0.50f) < cost) {
+                if (slot < TOP_SYSTEMS) top[slot] = top[slot - 1];
+                slot--;
+            }
+            if (slot < TOP_SYSTEMS) top[slot] = i;
+        }
+        return count;
+    }
+}
@@ -5,11 +5,14 @@ import com.artemis.Entity;
 import com.artemis.annotations.Wire;
 import com.artemis.managers.TagManager;
 import com.artemis.systems.VoidEntitySystem;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.utils.StringBuilder;
 import net.mostlyoriginal.ns2d.component.Health;
 import net.mostlyoriginal.ns2d.component.Wallet;
 import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
 import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
+import net.mostlyoriginal.ns2d.util.CachedText;
 
 /**
  * @author Daan van Yperen
@@ -19,28 +22,38 @@ public class UIRenderSystem extends VoidEntitySystem {
 
     private CameraSystem cameraSystem;
     private AssetSystem assetSystem;
-    private SpriteBatch batch = new SpriteBatch();
+    private RenderPipelineSystem renderPipelineSystem;
 
     private TagManager tagManager;
 
     private ComponentMapper<Wallet> wm;
     private ComponentMapper<Health> hm;
 
+    private final StringBuilder line = new StringBuilder(32);
+    private CachedText resources;
+    private CachedText health;
+
+    @Override
+    protected void initialize() {
+        resources = new CachedText(assetSystem.font);
+        health = new CachedText(assetSystem.font);
+    }
+
     @Override
     protected void processSystem() {
-        batch.setProjectionMatrix(cameraSystem.guiCamera.combined);
-        batch.begin();
-        batch.setColor(1f, 1f, 1f, 1f);
+        final Batch batch = renderPipelineSystem.begin(RenderPipelineSystem.Pass.GUI);
 
         Entity player = tagManager.getEntity("player");
         assetSystem.font.setColor(1f,1f,1f,1f);
-        assetSystem.font.draw(batch, "resources: " + wm.get(player).resources + "$", 50, 50);
+        line.setLength(0);
+        line.append("resources: ").append(wm.get(player).resources).append('$');
+        resources.setText(line).draw(batch, 50, 50);
         if ( hm.has(player))
         {
             Health health = hm.get(player);
-            assetSystem.font.draw(batch, "health: " + (health.health - health.damage), 200, 50);
+            line.setLength(0);
+            line.append("health: ").append(health.health - health.damage);
+            this.health.setText(line).draw(batch, 200, 50);
         }
-
-        batch.end();
     }
 }
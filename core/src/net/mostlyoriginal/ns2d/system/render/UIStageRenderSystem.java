@@ -4,12 +4,14 @@ import com.artemis.annotations.Wire;
 import com.artemis.systems.VoidEntitySystem;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.StringBuilder;
 import net.mostlyoriginal.ns2d.system.active.DirectorSystem;
 import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
 import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
+import net.mostlyoriginal.ns2d.util.CachedText;
 
 /**
  * @author Daan van Yperen
@@ -24,10 +26,20 @@ public class UIStageRenderSystem extends VoidEntitySystem {
     private AssetSystem assetSystem;
     private DirectorSystem directorSystem;
 
-    private SpriteBatch batch = new SpriteBatch();
+    private RenderPipelineSystem renderPipelineSystem;
     private float cooldown = DISPLAY_DURATION;
     private int reportedStage = -1;
 
+    private final StringBuilder line = new StringBuilder(16);
+    private CachedText announcement;
+    private CachedText stage;
+
+    @Override
+    protected void initialize() {
+        announcement = new CachedText(assetSystem.fontLarge, 16);
+        stage = new CachedText(assetSystem.font, 16);
+    }
+
     @Override
     protected void processSystem() {
         if (directorSystem.activeStage > reportedStage) {
@@ -35,19 +47,18 @@ public class UIStageRenderSystem extends VoidEntitySystem {
             cooldown = DISPLAY_DURATION;
         }
 
-        String cost = "Stage " + (directorSystem.activeStage + 1);
+        line.setLength(0);
+        line.append("Stage ").append(directorSystem.activeStage + 1);
         cooldown -= world.delta;
-        batch.begin();
-        batch.setColor(1f, 1f, 1f, 1f);
+        final Batch batch = renderPipelineSystem.begin(RenderPipelineSystem.Pass.GUI);
 
         if (cooldown >= 0) {
-            batch.setProjectionMatrix(cameraSystem.guiCamera.combined);
             assetSystem.fontLarge.setColor(1f, 1f, 1f, MathUtils.clamp(cooldown, 0, 1));
-            assetSystem.fontLarge.draw(batch, cost, Gdx.graphics.getWidth() / 4 - assetSystem.fontLarge.getBounds(cost).width / 2, Gdx.graphics.getHeight() / 3 + 2);
+            announcement.setText(line);
+            announcement.draw(batch, Gdx.graphics.getWidth() / 4 - announcement.width / 2, Gdx.graphics.getHeight() / 3 + 2);
         } else {
-            BitmapFont.TextBounds bounds = assetSystem.font.getBounds(cost);
-            assetSystem.font.draw(batch, cost, Gdx.graphics.getWidth() / 2 - bounds.width - 12, Gdx.graphics.getHeight() / 2 - 30);
+            stage.setText(line);
+            stage.draw(batch, Gdx.graphics.getWidth() / 2 - stage.width - 12, Gdx.graphics.getHeight() / 2 - 30);
         }
-        batch.end();
     }
 }
@@ -5,14 +5,17 @@ import com.artemis.systems.VoidEntitySystem;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.Interpolation;
+import com.badlogic.gdx.utils.StringBuilder;
 import net.mostlyoriginal.ns2d.G;
 import net.mostlyoriginal.ns2d.system.active.DirectorSystem;
 import net.mostlyoriginal.ns2d.system.active.PlayerControlSystem;
 import net.mostlyoriginal.ns2d.system.passive.AssetSystem;
 import net.mostlyoriginal.ns2d.system.passive.CameraSystem;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
+import net.mostlyoriginal.ns2d.util.CachedText;
+import net.mostlyoriginal.ns2d.util.TextFormat;
 
 /**
  * @author Daan van Yperen
@@ -29,24 +32,34 @@ public class UIStopwatchRenderSytem extends VoidEntitySystem {
     private UIStageRenderSystem stageRenderSystem;
     private PlayerControlSystem playerControlSystem;
 
-    private SpriteBatch batch = new SpriteBatch();
+    private RenderPipelineSystem renderPipelineSystem;
     private float retryCooldown = 1;
     private float age = 0;
     public boolean gameOver =false;
     private float improvement=0;
     float bounce;
 
+    private final StringBuilder line = new StringBuilder(16);
+    private CachedText time;
+    private CachedText message;
+    private CachedText retry;
+
+    @Override
+    protected void initialize() {
+        time = new CachedText(assetSystem.fontLarge, 16);
+        message = new CachedText(assetSystem.font, 64);
+        retry = new CachedText(assetSystem.font).setText("Press space to try again");
+    }
+
     @Override
     protected void processSystem() {
 
         bounce += world.delta;
-        batch.setProjectionMatrix(cameraSystem.guiCamera.combined);
-        batch.begin();
-        batch.setColor(1f, 1f, 1f, 1f);
+        final Batch batch = renderPipelineSystem.begin(RenderPipelineSystem.Pass.GUI);
         assetSystem.fontLarge.setColor(1f, 1f, 1f, 1f);
 
-        String cost = formatAge();
-        BitmapFont.TextBounds bounds = assetSystem.fontLarge.getBounds(cost);
+        line.setLength(0);
+        TextFormat.appendTime(line, age);
         if (gameOver) {
 
             if ( G.settings.personalHighscore < (int)age )
@@ -61,19 +74,16 @@ public class UIStopwatchRenderSytem extends VoidEntitySystem {
             playerControlSystem.setEnabled(false);
 
             assetSystem.fontLarge.setScale(Interpolation.elastic.apply(3,( improvement > 0 ? 4 : 3),Math.abs((bounce%2)-1)));
-            BitmapFont.TextBounds bounds2 = assetSystem.fontLarge.getBounds(cost);
-            assetSystem.fontLarge.draw(batch, cost, Gdx.graphics.getWidth() / 4 - bounds2.width / 2, Gdx.graphics.getHeight() / 4 + bounds2.height/2 + 5);
+            time.setText(line);
+            time.draw(batch, Gdx.graphics.getWidth() / 4 - time.width / 2, Gdx.graphics.getHeight() / 4 + time.height/2 + 5);
             assetSystem.fontLarge.setScale(3);
 
-            String message = improvement > 0 ? "Game over! Personal highscore! You survived for:" : "Game Over! You survived for:";
-            bounds = assetSystem.font.getBounds(message);
-            assetSystem.font.draw(batch, message, Gdx.graphics.getWidth() / 4 - bounds.width / 2, Gdx.graphics.getHeight() / 4 + 40);
+            message.setText(improvement > 0 ? "Game over! Personal highscore! You survived for:" : "Game Over! You survived for:");
+            message.draw(batch, Gdx.graphics.getWidth() / 4 - message.width / 2, Gdx.graphics.getHeight() / 4 + 40);
 
             retryCooldown -= world.delta;
             if (retryCooldown <= 0) {
-                message = "Press space to try again";
-                bounds = assetSystem.font.getBounds(message);
-                assetSystem.font.draw(batch, message, Gdx.graphics.getWidth() / 4 - bounds.width / 2, Gdx.graphics.getHeight() / 4 - 30);
+                retry.draw(batch, Gdx.graphics.getWidth() / 4 - retry.width / 2, Gdx.graphics.getHeight() / 4 - 30);
                 if (Gdx.input.isKeyPressed(Input.Keys.SPACE)) {
                     G.game.restart();
                     return;
@@ -81,18 +91,8 @@ public class UIStopwatchRenderSytem extends VoidEntitySystem {
             }
         } else {
             age += world.delta;
-            assetSystem.fontLarge.draw(batch, cost, Gdx.graphics.getWidth() / 2 - bounds.width - 10, Gdx.graphics.getHeight() / 2 + 10);
-            String message = "Stage " + (directorSystem.activeStage + 1);
+            time.setText(line);
+            time.draw(batch, Gdx.graphics.getWidth() / 2 - time.width - 10, Gdx.graphics.getHeight() / 2 + 10);
         }
-        batch.end();
-    }
-
-    private String formatAge() {
-        return
-                format((int) (age / 60)) + ":" +format((int) (age % 60)) + ":" +format((int) ((age * 100) % 100));
-    }
-
-    private String format(int value) {
-        return value < 10 ? "0" + value : ""+value;
     }
 }
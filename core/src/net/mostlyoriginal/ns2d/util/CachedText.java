@@ -0,0 +1,92 @@
+package net.mostlyoriginal.ns2d.util;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.utils.StringBuilder;
+
+/**
+ * A line of text, laid out into glyphs and measured once, until the text or the font scale changes.
+ * <p/>
+ * Hand it the text every frame, from a constant or a reused builder; setting the same text
+ * again only compares it. Draws in the font's color at the time, like {@link BitmapFont#draw}.
+ */
+public class CachedText {
+
+    public final BitmapFont font;
+
+    private final BitmapFontCache cache;
+    private final StringBuilder text;
+    private float scaleX;
+    private float scaleY;
+    private float color;
+
+    /** measured bounds of the text. */
+    public float width;
+    public float height;
+
+    /** times the text was laid out, since construction. */
+    public int layouts;
+
+    public CachedText(BitmapFont font) {
+        this(font, 32);
+    }
+
+    /**
+     * @param capacity expected length of the text.
+     */
+    public CachedText(BitmapFont font, int capacity) {
+        this.font = font;
+        cache = new BitmapFontCache(font);
+        text = new StringBuilder(capacity);
+        color = cache.getColor().toFloatBits();
+    }
+
+    /**
+     * Lay out text, unless it and the font scale are the same as last time.
+     *
+     * @return this, to measure or draw.
+     */
+    public CachedText setText(CharSequence text) {
+        if (layouts > 0 && scaleX == font.getScaleX() && scaleY == font.getScaleY() && same(text)) {
+            return this;
+        }
+        // char by char, appending a CharSequence goes through toString().
+        this.text.setLength(0);
+        for (int i = 0, length = text.length(); i < length; i++) {
+            this.text.append(text.charAt(i));
+        }
+        scaleX = font.getScaleX();
+        scaleY = font.getScaleY();
+
+        final BitmapFont.TextBounds bounds = cache.setText(this.text, 0, 0);
+        width = bounds.width;
+        height = bounds.height;
+        cache.setColors(color);
+        layouts++;
+        return this;
+    }
+
+    /**
+     * Draw with the top left at x, y, in the font's current color.
+     */
+    public void draw(Batch batch, float x, float y) {
+        final float fontColor = font.getColor().toFloatBits();
+        if (fontColor != color) {
+            color = fontColor;
+            cache.setColor(color);
+            cache.setColors(color);
+        }
+        cache.setPosition(x, y);
+        cache.draw(batch);
+    }
+
+    private boolean same(CharSequence other) {
+        final int length = text.length();
+        if (other.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) != other.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package net.mostlyoriginal.ns2d.util;
+
+/**
+ * Per tile flags telling which of the tile and its direct neighbours are set in a {@link MapMask}.
+ * <p/>
+ * Rebuilt lazily whenever the mask version changes, so sensors can resolve
+ * all contacts around a tile with a single lookup.
+ */
+public class EdgeTable {
+
+    public static final int SELF = 1;
+    public static final int BELOW = 2;
+    public static final int ABOVE = 4;
+    public static final int EAST = 8;
+    public static final int WEST = 16;
+
+    /** returned for tiles outside the mask, callers should fall back to the mask itself. */
+    public static final int OUTSIDE = -1;
+
+    public final MapMask mask;
+    private final byte[] flags;
+    private int builtVersion = -1;
+
+    public EdgeTable(MapMask mask) {
+        this.mask = mask;
+        this.flags = new byte[mask.width * mask.height];
+    }
+
+    /**
+     * @return edge flags of TILE, {@link #OUTSIDE} when out of bounds.
+     */
+    public int at(final int x, final int y) {
+        if (x >= mask.width || x < 0 || y < 0 || y >= mask.height) return OUTSIDE;
+        if (builtVersion != mask.version) {
+            build();
+        }
+        return flags[y * mask.width + x];
+    }
+
+    private void build() {
+        builtVersion = mask.version;
+        for (int y = 0; y < mask.height; y++) {
+            for (int x = 0; x < mask.width; x++) {
+                int f = 0;
+                if (mask.atGrid(x, y)) f |= SELF;
+                if (mask.atGrid(x, y - 1)) f |= BELOW;
+                if (mask.atGrid(x, y + 1)) f |= ABOVE;
+                if (mask.atGrid(x + 1, y)) f |= EAST;
+                if (mask.atGrid(x - 1, y)) f |= WEST;
+                flags[y * mask.width + x] = (byte) f;
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.artemis.EntityEdit;
 import com.artemis.World;
 import net.mostlyoriginal.ns2d.G;
 import net.mostlyoriginal.ns2d.component.*;
+import net.mostlyoriginal.ns2d.system.passive.BulletPoolSystem;
 
 /**
  * @author Daan van Yperen
@@ -187,14 +188,40 @@ public class EntityFactory {
                 .add(new Anim("duct", Anim.Layer.ON_WALL)).getEntity();
     }
 
+    /**
+     * Bullet with a default {@link Payload}. Components come from the world's {@link BulletPoolSystem},
+     * and go back to it once the bullet is deleted.
+     */
     public static Entity createBullet(World world, float x, float y) {
-        Physics physics = new Physics();
-        physics.friction=0.01f;
-        return newPositioned(world, x, y)
-                .add(new Anim("bullet", Anim.Layer.BULLETS))
+        final BulletPoolSystem pool = world.getSystem(BulletPoolSystem.class);
+
+        final Pos pos = pool.positions.obtain();
+        pos.x = x;
+        pos.y = y;
+
+        final Anim anim = pool.anims.obtain();
+        anim.id = "bullet";
+        anim.layer = Anim.Layer.BULLETS;
+
+        final Physics physics = pool.physics.obtain();
+        physics.friction = 0.01f;
+
+        final Gravity gravity = pool.gravities.obtain();
+        gravity.y = -4f;
+
+        final Bounds bounds = pool.bounds.obtain();
+        bounds.x2 = 7;
+        bounds.y2 = 4;
+
+        return world.createEntity()
+                .edit()
+                .add(pos)
+                .add(anim)
                 .add(physics)
-                .add(new Gravity(-4f))
-                .add(new Bounds(7, 4)).getEntity();
+                .add(gravity)
+                .add(pool.continuousCollisions.obtain())
+                .add(bounds)
+                .add(pool.payloads.obtain()).getEntity();
     }
 
     public static Entity createMouseCursor(World world, float x, float y) {
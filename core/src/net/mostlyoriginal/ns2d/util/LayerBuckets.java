@@ -0,0 +1,113 @@
+package net.mostlyoriginal.ns2d.util;
+
+import com.artemis.Entity;
+import com.artemis.utils.Bag;
+import com.artemis.utils.ImmutableBag;
+
+/**
+ * Entities bucketed by layer, for drawing back to front without sorting.
+ * <p/>
+ * Adding, removing and moving between layers are O(1). Removal swaps the last entity of
+ * the bucket into the freed slot, so order within a layer is not kept.
+ */
+public class LayerBuckets {
+
+    private static final int NONE = -1;
+
+    private final Bag<Entity>[] buckets;
+
+    // layer and slot in that layer's bucket, per entity id.
+    private int[] layers = new int[128];
+    private int[] slots = new int[128];
+
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public LayerBuckets(int layerCount) {
+        buckets = new Bag[layerCount];
+        for (int i = 0; i < layerCount; i++) {
+            buckets[i] = new Bag<Entity>();
+        }
+        fill(layers, 0);
+    }
+
+    public int layerCount() {
+        return buckets.length;
+    }
+
+    /** @return total number of entities in all layers. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return entities on layer, in no particular order. Do not modify.
+     */
+    public ImmutableBag<Entity> get(final int layer) {
+        return buckets[layer];
+    }
+
+    /**
+     * @return layer the entity is on, or -1 if not added.
+     */
+    public int layerOf(final Entity e) {
+        final int id = e.getId();
+        return id < layers.length ? layers[id] : NONE;
+    }
+
+    public void add(final Entity e, final int layer) {
+        final int id = e.getId();
+        if (id >= layers.length) {
+            grow(id + 1);
+        }
+        if (layers[id] != NONE) {
+            remove(e);
+        }
+        final Bag<Entity> bucket = buckets[layer];
+        layers[id] = layer;
+        slots[id] = bucket.size();
+        bucket.add(e);
+        size++;
+    }
+
+    public void remove(final Entity e) {
+        final int id = e.getId();
+        if (id >= layers.length || layers[id] == NONE) return;
+
+        final Bag<Entity> bucket = buckets[layers[id]];
+        final int slot = slots[id];
+        bucket.remove(slot);
+        if (slot < bucket.size()) {
+            // the last entity took the freed slot.
+            slots[bucket.get(slot).getId()] = slot;
+        }
+        layers[id] = NONE;
+        size--;
+    }
+
+    /**
+     * Move an entity to another layer, adding it if it wasn't.
+     */
+    public void move(final Entity e, final int layer) {
+        if (layerOf(e) != layer) {
+            add(e, layer);
+        }
+    }
+
+    private void grow(final int minimum) {
+        final int capacity = Math.max(minimum, layers.length * 2);
+        final int[] newLayers = new int[capacity];
+        System.arraycopy(layers, 0, newLayers, 0, layers.length);
+        fill(newLayers, layers.length);
+        layers = newLayers;
+        final int[] newSlots = new int[capacity];
+        System.arraycopy(slots, 0, newSlots, 0, slots.length);
+        slots = newSlots;
+    }
+
+    private static void fill(final int[] target, final int from) {
+        for (int i = from; i < target.length; i++) {
+            target[i] = NONE;
+        }
+    }
+}
@@ -6,21 +6,32 @@ import net.mostlyoriginal.ns2d.G;
 
 /**
  * Creates a mask based on tiles with a certain propertyKey.
+ * <p/>
+ * Packed as one bit per tile, 64 tiles per word, rows padded to whole words.
  *
  * @author Daan van Yperen
  */
 public class MapMask {
 
-    public final boolean[][] v;
+    private static final int WORD_BITS = 64;
+
+    public final long[] v;
     public final int height;
     public final int width;
+    public final int wordsPerRow;
+    public final String propertyKey;
+
+    // bumped whenever a tile changes, so derived data knows when to rebuild.
+    public int version;
 
     public MapMask(int height, int width, Array<TiledMapTileLayer> layers, String propertyKey) {
         this.height = height;
         this.width = width;
+        this.propertyKey = propertyKey;
 
-        v = new boolean[height][width];
-        generate(layers, propertyKey);
+        wordsPerRow = (width + WORD_BITS - 1) / WORD_BITS;
+        v = new long[Math.max(1, height * wordsPerRow)];
+        generate(layers);
     }
 
     /**
@@ -31,7 +42,7 @@ public class MapMask {
     public boolean atGrid( final int x, final int y )
     {
         if ( x >= width || x < 0 || y < 0 || y >= height  ) return false;
-        return v[y][x];
+        return (v[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
     }
 
     /**
@@ -50,17 +61,255 @@ public class MapMask {
         return atGrid((int)((int)x / G.CELL_SIZE),(int)((int)y / G.CELL_SIZE));
     }
 
-    private void generate(Array<TiledMapTileLayer> layers, String propertyKey) {
+    /**
+     * @return grid coordinate for PIXEL coordinate, rounded the same way as {@link #atScreen}.
+     */
+    public static int toGrid( final float screen )
+    {
+        return (int)((int)screen / G.CELL_SIZE);
+    }
+
+    /**
+     * Set or clear a single tile. Out of bounds is ignored.
+     */
+    public void set( final int x, final int y, final boolean value )
+    {
+        if ( x >= width || x < 0 || y < 0 || y >= height  ) return;
+        final int word = y * wordsPerRow + (x >>> 6);
+        final long before = v[word];
+        if ( value ) {
+            v[word] |= 1L << x;
+        } else {
+            v[word] &= ~(1L << x);
+        }
+        if ( v[word] != before ) version++;
+    }
+
+    /**
+     * Re-evaluate a single tile, after a cell in one of the layers has changed.
+     */
+    public void refresh(Array<TiledMapTileLayer> layers, final int x, final int y)
+    {
+        boolean found = false;
+        for (TiledMapTileLayer layer : layers) {
+            if ( hasProperty(layer.getCell(x, y)) ) {
+                found = true;
+                break;
+            }
+        }
+        set(x, y, found);
+    }
+
+    private boolean hasProperty(final TiledMapTileLayer.Cell cell) {
+        return cell != null && cell.getTile() != null && cell.getTile().getProperties().containsKey(propertyKey);
+    }
+
+    /**
+     * @return TRUE when property found anywhere in the TILE rectangle, bounds inclusive. Out of bounds is ignored.
+     */
+    public boolean anyInRect( int x1, int y1, int x2, int y2 )
+    {
+        if ( x1 < 0 ) x1 = 0;
+        if ( y1 < 0 ) y1 = 0;
+        if ( x2 >= width ) x2 = width - 1;
+        if ( y2 >= height ) y2 = height - 1;
+        if ( x1 > x2 || y1 > y2 ) return false;
+
+        final int firstWord = x1 >>> 6;
+        final int lastWord = x2 >>> 6;
+        final long firstMask = -1L << x1;
+        final long lastMask = -1L >>> (WORD_BITS - 1 - (x2 & 63));
+
+        for (int y = y1; y <= y2; y++) {
+            final int row = y * wordsPerRow;
+            if ( firstWord == lastWord ) {
+                if ( (v[row + firstWord] & firstMask & lastMask) != 0 ) return true;
+            } else {
+                if ( (v[row + firstWord] & firstMask) != 0 ) return true;
+                for (int w = firstWord + 1; w < lastWord; w++) {
+                    if ( v[row + w] != 0 ) return true;
+                }
+                if ( (v[row + lastWord] & lastMask) != 0 ) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return TRUE when property found anywhere in the PIXEL rectangle, bounds inclusive.
+     */
+    public boolean anyInScreenRect( final float x1, final float y1, final float x2, final float y2 )
+    {
+        return anyInRect(toGrid(x1), toGrid(y1), toGrid(x2), toGrid(y2));
+    }
+
+    /**
+     * Walk a row of tiles from fromX towards toX (either direction, inclusive).
+     *
+     * @return x of first tile with property, or -1 if none.
+     */
+    public int firstInRow( final int y, int fromX, int toX )
+    {
+        if ( y < 0 || y >= height ) return -1;
+        final int row = y * wordsPerRow;
+
+        if ( fromX <= toX ) {
+            if ( fromX < 0 ) fromX = 0;
+            if ( toX >= width ) toX = width - 1;
+            if ( fromX > toX ) return -1;
+
+            int w = fromX >>> 6;
+            long bits = v[row + w] & (-1L << fromX);
+            while (true) {
+                if ( bits != 0 ) {
+                    final int x = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    return x <= toX ? x : -1;
+                }
+                if ( ++w > (toX >>> 6) ) return -1;
+                bits = v[row + w];
+            }
+        } else {
+            if ( fromX >= width ) fromX = width - 1;
+            if ( toX < 0 ) toX = 0;
+            if ( fromX < toX ) return -1;
+
+            int w = fromX >>> 6;
+            long bits = v[row + w] & (-1L >>> (WORD_BITS - 1 - (fromX & 63)));
+            while (true) {
+                if ( bits != 0 ) {
+                    final int x = (w << 6) + (WORD_BITS - 1 - Long.numberOfLeadingZeros(bits));
+                    return x >= toX ? x : -1;
+                }
+                if ( --w < (toX >>> 6) ) return -1;
+                bits = v[row + w];
+            }
+        }
+    }
+
+    /**
+     * Walk a column of tiles from fromY towards toY (either direction, inclusive).
+     *
+     * @return y of first tile with property, or -1 if none.
+     */
+    public int firstInColumn( final int x, int fromY, int toY )
+    {
+        if ( x < 0 || x >= width ) return -1;
+        final int word = x >>> 6;
+        final long mask = 1L << x;
+
+        if ( fromY <= toY ) {
+            if ( fromY < 0 ) fromY = 0;
+            if ( toY >= height ) toY = height - 1;
+            for (int y = fromY; y <= toY; y++) {
+                if ( (v[y * wordsPerRow + word] & mask) != 0 ) return y;
+            }
+        } else {
+            if ( fromY >= height ) fromY = height - 1;
+            if ( toY < 0 ) toY = 0;
+            for (int y = fromY; y >= toY; y--) {
+                if ( (v[y * wordsPerRow + word] & mask) != 0 ) return y;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Result of a sweep.
+     */
+    public static class Impact {
+        /** fraction of the move until contact, 1 if nothing was hit. */
+        public float time;
+        /** true if a wall was hit moving horizontally, false if a floor or ceiling. */
+        public boolean horizontal;
+        /** the column (horizontal) or row (vertical) that was hit. */
+        public int tile;
+    }
+
+    /**
+     * Sweep a PIXEL box along dx,dy, walking the tile lines its leading edges cross (DDA).
+     * <p/>
+     * The box is treated as half open, so a box resting exactly against a tile
+     * is not inside it. Tiles the box already overlaps at the start are ignored.
+     *
+     * @return time of impact, 0..1. 1 when the whole move is free.
+     */
+    public float sweep( final float minx, final float miny, final float maxx, final float maxy,
+                        final float dx, final float dy, final Impact impact )
+    {
+        impact.time = 1;
+        if ( dx == 0 && dy == 0 ) return 1;
+
+        final int size = G.CELL_SIZE;
+
+        // next column/row the leading edge enters, and when.
+        int column = 0, row = 0, stepX = 0, stepY = 0;
+        float nextX = Float.MAX_VALUE, nextY = Float.MAX_VALUE, deltaX = 0, deltaY = 0;
+
+        if ( dx > 0 ) {
+            column = (int) Math.ceil(maxx / size);
+            stepX = 1;
+            nextX = (column * size - maxx) / dx;
+            deltaX = size / dx;
+        } else if ( dx < 0 ) {
+            column = (int) Math.floor(minx / size) - 1;
+            stepX = -1;
+            nextX = (minx - (column + 1) * size) / -dx;
+            deltaX = size / -dx;
+        }
+
+        if ( dy > 0 ) {
+            row = (int) Math.ceil(maxy / size);
+            stepY = 1;
+            nextY = (row * size - maxy) / dy;
+            deltaY = size / dy;
+        } else if ( dy < 0 ) {
+            row = (int) Math.floor(miny / size) - 1;
+            stepY = -1;
+            nextY = (miny - (row + 1) * size) / -dy;
+            deltaY = size / -dy;
+        }
+
+        while ( nextX <= 1 || nextY <= 1 ) {
+            if ( nextX <= nextY ) {
+                // entering a column, test the rows the box spans at that time.
+                final float t = nextX;
+                final int r1 = (int) Math.floor((miny + dy * t) / size);
+                final int r2 = (int) Math.ceil((maxy + dy * t) / size) - 1;
+                if ( anyInRect(column, r1, column, r2) ) {
+                    impact.time = t;
+                    impact.horizontal = true;
+                    impact.tile = column;
+                    return t;
+                }
+                column += stepX;
+                nextX += deltaX;
+            } else {
+                // entering a row, test the columns the box spans at that time.
+                final float t = nextY;
+                final int c1 = (int) Math.floor((minx + dx * t) / size);
+                final int c2 = (int) Math.ceil((maxx + dx * t) / size) - 1;
+                if ( anyInRect(c1, row, c2, row) ) {
+                    impact.time = t;
+                    impact.horizontal = false;
+                    impact.tile = row;
+                    return t;
+                }
+                row += stepY;
+                nextY += deltaY;
+            }
+        }
+        return 1;
+    }
+
+    private void generate(Array<TiledMapTileLayer> layers) {
         for (TiledMapTileLayer layer : layers) {
             for (int ty = 0; ty < height; ty++) {
                 for (int tx = 0; tx < width; tx++) {
-                    final TiledMapTileLayer.Cell cell = layer.getCell(tx, ty);
-                    if ( cell != null && cell.getTile() != null && cell.getTile().getProperties().containsKey(propertyKey)) {
-                        v[ty][tx] = true;
+                    if ( hasProperty(layer.getCell(tx, ty)) ) {
+                        set(tx, ty, true);
                     }
                 }
             }
         }
     }
 }
-
@@ -0,0 +1,189 @@
+package net.mostlyoriginal.ns2d.util;
+
+import net.mostlyoriginal.ns2d.component.Bounds;
+import net.mostlyoriginal.ns2d.component.Physics;
+import net.mostlyoriginal.ns2d.component.Pos;
+
+/**
+ * {@link Pos}, {@link Physics} and {@link Bounds} packed into parallel primitive arrays,
+ * indexed by id, so loops over many bodies stream through memory.
+ * <p/>
+ * Ids are whatever the owner indexes by, entity ids or slots. {@link ParticleBuffer} keeps
+ * its particles' bodies here, entities keep their components as objects.
+ * <p/>
+ * Arrays are exposed for tight loops, and replaced when grown, so don't hold on to them
+ * across {@link #ensureCapacity(int)}. Ids without a component keep stale values, check
+ * {@link #flags} first.
+ */
+public class PackedBodies {
+
+    public static final int POS = 1;
+    public static final int PHYSICS = 2;
+    public static final int BOUNDS = 4;
+
+    // Pos
+    public float[] x;
+    public float[] y;
+
+    // Physics
+    public float[] vx;
+    public float[] vy;
+    public float[] vr;
+    public float[] friction;
+    public float[] bounce;
+
+    // Bounds
+    public int[] x1;
+    public int[] y1;
+    public int[] x2;
+    public int[] y2;
+
+    /** which components each id has, see {@link #POS}, {@link #PHYSICS}, {@link #BOUNDS}. */
+    public int[] flags;
+
+    private int capacity;
+
+    public PackedBodies() {
+        this(128);
+    }
+
+    public PackedBodies(int capacity) {
+        resize(Math.max(1, capacity));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Make room for ids up to and including id.
+     */
+    public void ensureCapacity(final int id) {
+        if (id >= capacity) {
+            resize(Math.max(id + 1, capacity * 2));
+        }
+    }
+
+    public boolean has(final int id, final int flag) {
+        return id < capacity && (flags[id] & flag) == flag;
+    }
+
+    /**
+     * Copy components into the packed arrays. Null components are marked as absent.
+     */
+    public void store(final int id, final Pos pos, final Physics physics, final Bounds bounds) {
+        ensureCapacity(id);
+        int flag = 0;
+        if (pos != null) {
+            x[id] = pos.x;
+            y[id] = pos.y;
+            flag |= POS;
+        }
+        if (physics != null) {
+            vx[id] = physics.vx;
+            vy[id] = physics.vy;
+            vr[id] = physics.vr;
+            friction[id] = physics.friction;
+            bounce[id] = physics.bounce;
+            flag |= PHYSICS;
+        }
+        if (bounds != null) {
+            x1[id] = bounds.x1;
+            y1[id] = bounds.y1;
+            x2[id] = bounds.x2;
+            y2[id] = bounds.y2;
+            flag |= BOUNDS;
+        }
+        flags[id] = flag;
+    }
+
+    /**
+     * Copy the packed values back into components. Null components, or absent ones, are skipped.
+     */
+    public void load(final int id, final Pos pos, final Physics physics, final Bounds bounds) {
+        if (id >= capacity) return;
+        final int flag = flags[id];
+        if (pos != null && (flag & POS) != 0) {
+            pos.x = x[id];
+            pos.y = y[id];
+        }
+        if (physics != null && (flag & PHYSICS) != 0) {
+            physics.vx = vx[id];
+            physics.vy = vy[id];
+            physics.vr = vr[id];
+            physics.friction = friction[id];
+            physics.bounce = bounce[id];
+        }
+        if (bounds != null && (flag & BOUNDS) != 0) {
+            bounds.x1 = x1[id];
+            bounds.y1 = y1[id];
+            bounds.x2 = x2[id];
+            bounds.y2 = y2[id];
+        }
+    }
+
+    /**
+     * Copy everything stored for one id over another.
+     */
+    public void move(final int from, final int to) {
+        ensureCapacity(Math.max(from, to));
+        x[to] = x[from];
+        y[to] = y[from];
+        vx[to] = vx[from];
+        vy[to] = vy[from];
+        vr[to] = vr[from];
+        friction[to] = friction[from];
+        bounce[to] = bounce[from];
+        x1[to] = x1[from];
+        y1[to] = y1[from];
+        x2[to] = x2[from];
+        y2[to] = y2[from];
+        flags[to] = flags[from];
+    }
+
+    public void remove(final int id) {
+        if (id < capacity) {
+            flags[id] = 0;
+        }
+    }
+
+    /**
+     * @return bytes held by the arrays, for comparing against component objects.
+     */
+    public long memoryUsage() {
+        // twelve arrays of four byte values.
+        return (long) capacity * 12 * 4;
+    }
+
+    private void resize(final int newCapacity) {
+        x = copy(x, newCapacity);
+        y = copy(y, newCapacity);
+        vx = copy(vx, newCapacity);
+        vy = copy(vy, newCapacity);
+        vr = copy(vr, newCapacity);
+        friction = copy(friction, newCapacity);
+        bounce = copy(bounce, newCapacity);
+        x1 = copy(x1, newCapacity);
+        y1 = copy(y1, newCapacity);
+        x2 = copy(x2, newCapacity);
+        y2 = copy(y2, newCapacity);
+        flags = copy(flags, newCapacity);
+        capacity = newCapacity;
+    }
+
+    private static float[] copy(final float[] source, final int length) {
+        final float[] result = new float[length];
+        if (source != null) {
+            System.arraycopy(source, 0, result, 0, Math.min(source.length, length));
+        }
+        return result;
+    }
+
+    private static int[] copy(final int[] source, final int length) {
+        final int[] result = new int[length];
+        if (source != null) {
+            System.arraycopy(source, 0, result, 0, Math.min(source.length, length));
+        }
+        return result;
+    }
+}
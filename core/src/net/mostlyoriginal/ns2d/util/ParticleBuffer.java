@@ -0,0 +1,118 @@
+package net.mostlyoriginal.ns2d.util;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+
+/**
+ * Particles as parallel primitive arrays, without entities or components.
+ * <p/>
+ * Position, movement and collision box are kept in {@link #body}, indexed by particle,
+ * with the collision box anchored at 0,0. The rest is particle specific.
+ * <p/>
+ * Removal swaps the last particle into the freed slot, so indices are only stable
+ * until the next {@link #remove(int)}, and order is not kept.
+ */
+public class ParticleBuffer {
+
+    public final PackedBodies body;
+
+    // position before the last step, for blending.
+    public float[] px;
+    public float[] py;
+
+    // y gravity, 0 for none.
+    public float[] gravity;
+
+    // lifetime, like Terminal.
+    public float[] lifetime;
+    public float[] fadeout;
+
+    // appearance, like Anim.
+    public Animation[] animation;
+    public float[] age;
+    public float[] speed;
+    public float[] scale;
+    public float[] rotation;
+    public float[] alpha;
+
+    private int size;
+
+    public ParticleBuffer(int capacity) {
+        body = new PackedBodies(capacity);
+        resize(Math.max(1, capacity));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Claim a slot at the end. All values are left as the previous occupant left them,
+     * callers should set every array.
+     *
+     * @return index of the new particle.
+     */
+    public int add() {
+        if (size == px.length) {
+            resize(size * 2);
+        }
+        body.flags[size] = PackedBodies.POS | PackedBodies.PHYSICS | PackedBodies.BOUNDS;
+        return size++;
+    }
+
+    /**
+     * Remove particle by moving the last particle into its slot.
+     */
+    public void remove(final int index) {
+        final int last = --size;
+        if (index != last) {
+            body.move(last, index);
+            px[index] = px[last];
+            py[index] = py[last];
+            gravity[index] = gravity[last];
+            lifetime[index] = lifetime[last];
+            fadeout[index] = fadeout[last];
+            animation[index] = animation[last];
+            age[index] = age[last];
+            speed[index] = speed[last];
+            scale[index] = scale[last];
+            rotation[index] = rotation[last];
+            alpha[index] = alpha[last];
+        }
+        animation[last] = null;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            animation[i] = null;
+        }
+        size = 0;
+    }
+
+    private void resize(final int capacity) {
+        body.ensureCapacity(capacity - 1);
+        px = copy(px, capacity);
+        py = copy(py, capacity);
+        gravity = copy(gravity, capacity);
+        lifetime = copy(lifetime, capacity);
+        fadeout = copy(fadeout, capacity);
+        age = copy(age, capacity);
+        speed = copy(speed, capacity);
+        scale = copy(scale, capacity);
+        rotation = copy(rotation, capacity);
+        alpha = copy(alpha, capacity);
+
+        final Animation[] newAnimation = new Animation[capacity];
+        if (animation != null) {
+            System.arraycopy(animation, 0, newAnimation, 0, size);
+        }
+        animation = newAnimation;
+    }
+
+    private float[] copy(final float[] source, final int length) {
+        final float[] result = new float[length];
+        if (source != null) {
+            System.arraycopy(source, 0, result, 0, size);
+        }
+        return result;
+    }
+}
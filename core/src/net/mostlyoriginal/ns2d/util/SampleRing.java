@@ -0,0 +1,60 @@
+package net.mostlyoriginal.ns2d.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size ring of the most recent samples, with percentiles.
+ * <p/>
+ * Storage is allocated once, adding and querying never allocates.
+ */
+public class SampleRing {
+
+    private final long[] samples;
+    private final long[] sorted;
+    private int next;
+    private int count;
+    private boolean sortedValid;
+
+    public SampleRing(int capacity) {
+        samples = new long[capacity];
+        sorted = new long[capacity];
+    }
+
+    public void add(final long sample) {
+        samples[next] = sample;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) count++;
+        sortedValid = false;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return most recent sample, 0 if empty.
+     */
+    public long last() {
+        return count == 0 ? 0 : samples[(next + samples.length - 1) % samples.length];
+    }
+
+    /**
+     * @param p 0..1, ie. 0.95f for the 95th percentile.
+     * @return nearest rank percentile of the samples in the ring, 0 if empty.
+     */
+    public long percentile(final float p) {
+        if (count == 0) return 0;
+        if (!sortedValid) {
+            System.arraycopy(samples, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            sortedValid = true;
+        }
+        final int rank = (int) Math.ceil(p * count) - 1;
+        return sorted[rank < 0 ? 0 : rank >= count ? count - 1 : rank];
+    }
+
+    public void clear() {
+        next = count = 0;
+        sortedValid = false;
+    }
+}
@@ -0,0 +1,320 @@
+package net.mostlyoriginal.ns2d.util;
+
+import com.artemis.Entity;
+import com.artemis.utils.Bag;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Uniform grid of axis aligned boxes, for broad phase collision checks.
+ * <p/>
+ * Each item has an anchor point and optionally a box, and is bucketed into every
+ * cell either covers. Coordinates outside the grid are clamped to the edge cells,
+ * so nothing ever falls out of the index. Clearing keeps all storage around, so
+ * rebuilding every frame does not allocate.
+ */
+public class SpatialHash {
+
+    private static final int EMPTY = -1;
+
+    public final int cellSize;
+    public final int columns;
+    public final int rows;
+
+    // first node per cell.
+    private final int[] cellHead;
+
+    // node linked lists, one node per (cell, item) pair.
+    private int[] nodeNext = new int[64];
+    private int[] nodeItem = new int[64];
+    private int nodeCount;
+
+    // items, their anchors (x, y) and boxes (minx, miny, maxx, maxy).
+    private Entity[] items = new Entity[32];
+    private float[] points = new float[32 * 2];
+    private float[] boxes = new float[32 * 4];
+    private boolean[] hasBox = new boolean[32];
+    private int[] itemStamp = new int[32];
+    private int itemCount;
+
+    private int stamp;
+    private final IntArray hits = new IntArray();
+
+    public SpatialHash(int cellSize, int columns, int rows) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, columns);
+        this.rows = Math.max(1, rows);
+        cellHead = new int[this.columns * this.rows];
+        clear();
+    }
+
+    public void clear() {
+        for (int i = 0; i < cellHead.length; i++) {
+            cellHead[i] = EMPTY;
+        }
+        for (int i = 0; i < itemCount; i++) {
+            items[i] = null;
+        }
+        nodeCount = 0;
+        itemCount = 0;
+    }
+
+    public int size() {
+        return itemCount;
+    }
+
+    /**
+     * Add an item with a box, anchored at its minimum corner.
+     */
+    public void insert(final Entity entity, final float minx, final float miny, final float maxx, final float maxy) {
+        insert(entity, minx, miny, true, minx, miny, maxx, maxy);
+    }
+
+    /**
+     * Add an item without a box. It is only found by radius queries.
+     */
+    public void insert(final Entity entity, final float x, final float y) {
+        insert(entity, x, y, false, x, y, x, y);
+    }
+
+    /**
+     * Add an item anchored at x,y, with an optional box.
+     */
+    public void insert(final Entity entity, final float x, final float y, final boolean withBox, final float minx, final float miny, final float maxx, final float maxy) {
+
+        final int item = itemCount++;
+        if (item == items.length) {
+            growItems();
+        }
+        items[item] = entity;
+        points[item * 2] = x;
+        points[item * 2 + 1] = y;
+        hasBox[item] = withBox;
+        boxes[item * 4] = minx;
+        boxes[item * 4 + 1] = miny;
+        boxes[item * 4 + 2] = maxx;
+        boxes[item * 4 + 3] = maxy;
+        itemStamp[item] = stamp;
+
+        // cover both the anchor and the box.
+        final int cx1 = cellX(Math.min(x, minx));
+        final int cy1 = cellY(Math.min(y, miny));
+        final int cx2 = cellX(Math.max(x, maxx));
+        final int cy2 = cellY(Math.max(y, maxy));
+
+        for (int cy = cy1; cy <= cy2; cy++) {
+            for (int cx = cx1; cx <= cx2; cx++) {
+                final int node = nodeCount++;
+                if (node == nodeNext.length) {
+                    growNodes();
+                }
+                final int cell = cy * columns + cx;
+                nodeItem[node] = item;
+                nodeNext[node] = cellHead[cell];
+                cellHead[cell] = node;
+            }
+        }
+    }
+
+    public Entity get(final int item) {
+        return items[item];
+    }
+
+    /**
+     * Collect all items whose box overlaps the given box (edges inclusive).
+     *
+     * @param result cleared, then filled in insertion order.
+     * @return number of overlapping items.
+     */
+    public int query(final float minx, final float miny, final float maxx, final float maxy, final Bag<Entity> result) {
+        result.clear();
+        query(minx, miny, maxx, maxy, hits);
+        for (int i = 0, s = hits.size; i < s; i++) {
+            result.add(items[hits.get(i)]);
+        }
+        return hits.size;
+    }
+
+    /**
+     * Collect all items whose box overlaps the given box (edges inclusive).
+     *
+     * @param result cleared, then filled with item indices in insertion order.
+     * @return number of overlapping items.
+     */
+    public int query(final float minx, final float miny, final float maxx, final float maxy, final IntArray result) {
+        result.clear();
+        stamp++;
+
+        final int cx1 = cellX(minx);
+        final int cy1 = cellY(miny);
+        final int cx2 = cellX(maxx);
+        final int cy2 = cellY(maxy);
+
+        for (int cy = cy1; cy <= cy2; cy++) {
+            for (int cx = cx1; cx <= cx2; cx++) {
+                for (int node = cellHead[cy * columns + cx]; node != EMPTY; node = nodeNext[node]) {
+                    final int item = nodeItem[node];
+
+                    // items spanning several cells are only reported once.
+                    if (itemStamp[item] == stamp) continue;
+                    itemStamp[item] = stamp;
+
+                    final int b = item * 4;
+                    if (hasBox[item] &&
+                            !(minx > boxes[b + 2] || maxx < boxes[b] ||
+                              miny > boxes[b + 3] || maxy < boxes[b + 1])) {
+                        result.add(item);
+                    }
+                }
+            }
+        }
+
+        // keep the order of insertion, so callers resolve ties the same way a linear scan would.
+        result.sort();
+        return result.size;
+    }
+
+    /**
+     * Collect all items with their anchor within radius of x,y (edge inclusive).
+     *
+     * @param result cleared, then filled with item indices in insertion order.
+     * @return number of items in range.
+     */
+    public int queryRadius(final float x, final float y, final float radius, final IntArray result) {
+        result.clear();
+        stamp++;
+
+        final float radius2 = radius * radius;
+        final int cx1 = cellX(x - radius);
+        final int cy1 = cellY(y - radius);
+        final int cx2 = cellX(x + radius);
+        final int cy2 = cellY(y + radius);
+
+        for (int cy = cy1; cy <= cy2; cy++) {
+            for (int cx = cx1; cx <= cx2; cx++) {
+                for (int node = cellHead[cy * columns + cx]; node != EMPTY; node = nodeNext[node]) {
+                    final int item = nodeItem[node];
+
+                    if (itemStamp[item] == stamp) continue;
+                    itemStamp[item] = stamp;
+
+                    final float dx = points[item * 2] - x;
+                    final float dy = points[item * 2 + 1] - y;
+                    if (dx * dx + dy * dy <= radius2) {
+                        result.add(item);
+                    }
+                }
+            }
+        }
+
+        result.sort();
+        return result.size;
+    }
+
+    /**
+     * Find the item with its anchor closest to x,y. Ties go to the earliest inserted item.
+     *
+     * @return item index, or -1 when empty.
+     */
+    public int nearest(final float x, final float y) {
+        if (itemCount == 0) return -1;
+
+        final int ccx = (int) Math.floor(x / cellSize);
+        final int ccy = (int) Math.floor(y / cellSize);
+        if (ccx < 0 || ccy < 0 || ccx >= columns || ccy >= rows) {
+            // rings around clamped cells don't bound distance, just check everything.
+            return nearestOf(x, y, 0, itemCount);
+        }
+
+        stamp++;
+        int best = -1;
+        float bestDistance2 = 0;
+
+        for (int ring = 0, maxRing = Math.max(columns, rows); ring <= maxRing; ring++) {
+
+            // anything in this ring or beyond is at least (ring - 1) cells away.
+            if (best != -1 && ring > 0) {
+                final float reach = (ring - 1) * cellSize;
+                if (reach * reach > bestDistance2) break;
+            }
+
+            for (int cy = ccy - ring; cy <= ccy + ring; cy++) {
+                if (cy < 0 || cy >= rows) continue;
+                final boolean edgeRow = cy == ccy - ring || cy == ccy + ring;
+                for (int cx = ccx - ring; cx <= ccx + ring; cx += edgeRow ? 1 : ring * 2) {
+                    if (cx >= 0 && cx < columns) {
+                        for (int node = cellHead[cy * columns + cx]; node != EMPTY; node = nodeNext[node]) {
+                            final int item = nodeItem[node];
+
+                            if (itemStamp[item] == stamp) continue;
+                            itemStamp[item] = stamp;
+
+                            final float dx = points[item * 2] - x;
+                            final float dy = points[item * 2 + 1] - y;
+                            final float distance2 = dx * dx + dy * dy;
+                            if (best == -1 || distance2 < bestDistance2 || (distance2 == bestDistance2 && item < best)) {
+                                best = item;
+                                bestDistance2 = distance2;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    private int nearestOf(final float x, final float y, final int from, final int to) {
+        int best = -1;
+        float bestDistance2 = 0;
+        for (int item = from; item < to; item++) {
+            final float dx = points[item * 2] - x;
+            final float dy = points[item * 2 + 1] - y;
+            final float distance2 = dx * dx + dy * dy;
+            if (best == -1 || distance2 < bestDistance2) {
+                best = item;
+                bestDistance2 = distance2;
+            }
+        }
+        return best;
+    }
+
+    private int cellX(final float x) {
+        final int cx = (int) Math.floor(x / cellSize);
+        return cx < 0 ? 0 : cx >= columns ? columns - 1 : cx;
+    }
+
+    private int cellY(final float y) {
+        final int cy = (int) Math.floor(y / cellSize);
+        return cy < 0 ? 0 : cy >= rows ? rows - 1 : cy;
+    }
+
+    private void growItems() {
+        final int capacity = items.length * 2;
+        final Entity[] newItems = new Entity[capacity];
+        System.arraycopy(items, 0, newItems, 0, items.length);
+        items = newItems;
+        final float[] newPoints = new float[capacity * 2];
+        System.arraycopy(points, 0, newPoints, 0, points.length);
+        points = newPoints;
+        final boolean[] newHasBox = new boolean[capacity];
+        System.arraycopy(hasBox, 0, newHasBox, 0, hasBox.length);
+        hasBox = newHasBox;
+        final float[] newBoxes = new float[capacity * 4];
+        System.arraycopy(boxes, 0, newBoxes, 0, boxes.length);
+        boxes = newBoxes;
+        final int[] newStamps = new int[capacity];
+        System.arraycopy(itemStamp, 0, newStamps, 0, itemStamp.length);
+        itemStamp = newStamps;
+    }
+
+    private void growNodes() {
+        final int capacity = nodeNext.length * 2;
+        final int[] newNext = new int[capacity];
+        System.arraycopy(nodeNext, 0, newNext, 0, nodeNext.length);
+        nodeNext = newNext;
+        final int[] newItem = new int[capacity];
+        System.arraycopy(nodeItem, 0, newItem, 0, nodeItem.length);
+        nodeItem = newItem;
+    }
+}
@@ -0,0 +1,68 @@
+package net.mostlyoriginal.ns2d.util;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Sprites by dense int handle, so per frame lookups index an array instead of hashing a string.
+ * <p/>
+ * Resolve a sprite's string id to its handle once, then index {@link #animations} with it.
+ * Handles stay valid until {@link #clear()}; registering an id again replaces its
+ * animation under the same handle.
+ */
+public class SpriteRegistry {
+
+    public static final int NONE = -1;
+
+    private final ObjectIntMap<String> handles = new ObjectIntMap<String>();
+
+    /** animation per handle. May be replaced when sprites are registered, do not keep. */
+    public Animation[] animations = new Animation[64];
+
+    private int size;
+
+    /** @return number of handles handed out. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return handle of id.
+     */
+    public int register(final String id, final Animation animation) {
+        int handle = handles.get(id, NONE);
+        if (handle == NONE) {
+            handle = size++;
+            if (handle == animations.length) {
+                final Animation[] grown = new Animation[animations.length * 2];
+                System.arraycopy(animations, 0, grown, 0, animations.length);
+                animations = grown;
+            }
+            handles.put(id, handle);
+        }
+        animations[handle] = animation;
+        return handle;
+    }
+
+    /**
+     * @return handle of id, or {@link #NONE} if id is null or unknown.
+     */
+    public int resolve(final String id) {
+        return id != null ? handles.get(id, NONE) : NONE;
+    }
+
+    /**
+     * @return animation of handle, or null for {@link #NONE}.
+     */
+    public Animation get(final int handle) {
+        return handle != NONE ? animations[handle] : null;
+    }
+
+    public void clear() {
+        handles.clear();
+        for (int i = 0; i < size; i++) {
+            animations[i] = null;
+        }
+        size = 0;
+    }
+}
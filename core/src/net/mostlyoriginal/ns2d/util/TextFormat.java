@@ -0,0 +1,26 @@
+package net.mostlyoriginal.ns2d.util;
+
+import com.badlogic.gdx.utils.StringBuilder;
+
+/**
+ * Numbers and times appended to a reused builder, without allocating strings.
+ */
+public class TextFormat {
+
+    /**
+     * Append seconds as minutes:seconds:hundredths, two digits each.
+     */
+    public static StringBuilder appendTime(StringBuilder text, float seconds) {
+        return text.append((int) (seconds / 60), 2).append(':')
+                .append((int) (seconds % 60), 2).append(':')
+                .append((int) ((seconds * 100) % 100), 2);
+    }
+
+    /**
+     * Append a positive value rounded to two decimals.
+     */
+    public static StringBuilder appendHundredths(StringBuilder text, float value) {
+        final int hundredths = Math.round(value * 100);
+        return text.append(hundredths / 100).append('.').append(hundredths % 100, 2);
+    }
+}
@@ -0,0 +1,255 @@
+package net.mostlyoriginal.ns2d.util;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+
+import static com.badlogic.gdx.graphics.g2d.Batch.*;
+
+/**
+ * A tile layer baked into square chunks of sprite vertices.
+ * <p/>
+ * Each chunk's vertices are built once, the first time it is drawn, and again only after
+ * {@link #invalidate(int, int)} marks one of its cells changed. Drawing hands the baked
+ * vertices of chunks in view to the batch as is. Chunks with animated tiles are baked every draw.
+ * <p/>
+ * Vertices are those {@link com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer}
+ * builds, at unit scale, tinted white with the layer's opacity rather than the batch color.
+ */
+public class TileChunks {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8;
+
+    private static final int SPRITE_SIZE = 20;
+
+    public final TiledMapTileLayer layer;
+
+    private final int chunkSize;
+    private final int columns;
+    private final int rows;
+    private final float tileWidth;
+    private final float tileHeight;
+
+    // per chunk.
+    private final float[][] vertices;
+    private final Texture[][] textures;
+    private final int[] tiles;
+    private final boolean[] dirty;
+    private final boolean[] animated;
+    private float bakedOpacity;
+
+    /** tiles baked, since construction. */
+    public int tilesBaked;
+    /** tiles handed to the batch, since construction. */
+    public int tilesSubmitted;
+    /** chunks handed to the batch, since construction. */
+    public int chunksSubmitted;
+
+    public TileChunks(TiledMapTileLayer layer) {
+        this(layer, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize width and height of a chunk, in tiles.
+     */
+    public TileChunks(TiledMapTileLayer layer, int chunkSize) {
+        this.layer = layer;
+        this.chunkSize = chunkSize;
+        columns = (layer.getWidth() + chunkSize - 1) / chunkSize;
+        rows = (layer.getHeight() + chunkSize - 1) / chunkSize;
+        tileWidth = layer.getTileWidth();
+        tileHeight = layer.getTileHeight();
+
+        final int count = columns * rows;
+        vertices = new float[count][];
+        textures = new Texture[count][];
+        tiles = new int[count];
+        dirty = new boolean[count];
+        animated = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            vertices[i] = new float[chunkSize * chunkSize * SPRITE_SIZE];
+            textures[i] = new Texture[chunkSize * chunkSize];
+            dirty[i] = true;
+        }
+        bakedOpacity = layer.getOpacity();
+    }
+
+    /**
+     * Mark the chunk holding cell tx, ty for baking.
+     */
+    public void invalidate(int tx, int ty) {
+        if (tx < 0 || ty < 0 || tx >= layer.getWidth() || ty >= layer.getHeight()) return;
+        dirty[(ty / chunkSize) * columns + tx / chunkSize] = true;
+    }
+
+    /**
+     * Draw chunks that overlap the rectangle, in world coordinates. Chunks are drawn bottom
+     * row first, tiles within a chunk top row first.
+     *
+     * @param batch begun batch.
+     */
+    public void render(Batch batch, float x1, float y1, float x2, float y2) {
+        if (layer.getOpacity() != bakedOpacity) {
+            bakedOpacity = layer.getOpacity();
+            for (int i = 0; i < dirty.length; i++) {
+                dirty[i] = true;
+            }
+        }
+
+        final float chunkWidth = chunkSize * tileWidth;
+        final float chunkHeight = chunkSize * tileHeight;
+        final int column1 = Math.max(0, (int) Math.floor(x1 / chunkWidth));
+        final int column2 = Math.min(columns - 1, (int) Math.floor(x2 / chunkWidth));
+        final int row1 = Math.max(0, (int) Math.floor(y1 / chunkHeight));
+        final int row2 = Math.min(rows - 1, (int) Math.floor(y2 / chunkHeight));
+
+        for (int row = row1; row <= row2; row++) {
+            for (int column = column1; column <= column2; column++) {
+                final int chunk = row * columns + column;
+                if (dirty[chunk] || animated[chunk]) {
+                    bake(chunk, column, row);
+                }
+                submit(batch, chunk);
+            }
+        }
+    }
+
+    /**
+     * Hand chunk to the batch, one draw per run of tiles on the same texture.
+     */
+    private void submit(Batch batch, int chunk) {
+        final int count = tiles[chunk];
+        if (count == 0) return;
+
+        final float[] chunkVertices = vertices[chunk];
+        final Texture[] chunkTextures = textures[chunk];
+        int start = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || chunkTextures[i] != chunkTextures[start]) {
+                batch.draw(chunkTextures[start], chunkVertices, start * SPRITE_SIZE, (i - start) * SPRITE_SIZE);
+                start = i;
+            }
+        }
+        tilesSubmitted += count;
+        chunksSubmitted++;
+    }
+
+    private void bake(int chunk, int column, int row) {
+        final float color = Color.toFloatBits(1f, 1f, 1f, bakedOpacity);
+        final float[] chunkVertices = vertices[chunk];
+        final Texture[] chunkTextures = textures[chunk];
+
+        final int tx1 = column * chunkSize;
+        final int tx2 = Math.min(layer.getWidth(), tx1 + chunkSize);
+        final int ty1 = row * chunkSize;
+        final int ty2 = Math.min(layer.getHeight(), ty1 + chunkSize);
+
+        boolean hasAnimations = false;
+        int count = 0;
+        for (int ty = ty2 - 1; ty >= ty1; ty--) {
+            for (int tx = tx1; tx < tx2; tx++) {
+                final TiledMapTileLayer.Cell cell = layer.getCell(tx, ty);
+                if (cell == null) continue;
+                final TiledMapTile tile = cell.getTile();
+                if (tile == null) continue;
+
+                hasAnimations |= tile instanceof AnimatedTiledMapTile;
+                final TextureRegion region = tile.getTextureRegion();
+                chunkTextures[count] = region.getTexture();
+                bakeTile(chunkVertices, count * SPRITE_SIZE, cell, tile, region, tx * tileWidth, ty * tileHeight, color);
+                count++;
+            }
+        }
+        for (int i = count; i < tiles[chunk]; i++) {
+            chunkTextures[i] = null;
+        }
+
+        tiles[chunk] = count;
+        dirty[chunk] = false;
+        animated[chunk] = hasAnimations;
+        tilesBaked += count;
+    }
+
+    /**
+     * Same vertices as OrthogonalTiledMapRenderer#renderTileLayer.
+     */
+    private static void bakeTile(float[] vertices, int offset, TiledMapTileLayer.Cell cell, TiledMapTile tile, TextureRegion region, float x, float y, float color) {
+        final float x1 = x + tile.getOffsetX();
+        final float y1 = y + tile.getOffsetY();
+        final float x2 = x1 + region.getRegionWidth();
+        final float y2 = y1 + region.getRegionHeight();
+
+        final float u1 = region.getU();
+        final float v1 = region.getV2();
+        final float u2 = region.getU2();
+        final float v2 = region.getV();
+
+        vertices[offset + X1] = x1;
+        vertices[offset + Y1] = y1;
+        vertices[offset + C1] = color;
+        vertices[offset + U1] = u1;
+        vertices[offset + V1] = v1;
+
+        vertices[offset + X2] = x1;
+        vertices[offset + Y2] = y2;
+        vertices[offset + C2] = color;
+        vertices[offset + U2] = u1;
+        vertices[offset + V2] = v2;
+
+        vertices[offset + X3] = x2;
+        vertices[offset + Y3] = y2;
+        vertices[offset + C3] = color;
+        vertices[offset + U3] = u2;
+        vertices[offset + V3] = v2;
+
+        vertices[offset + X4] = x2;
+        vertices[offset + Y4] = y1;
+        vertices[offset + C4] = color;
+        vertices[offset + U4] = u2;
+        vertices[offset + V4] = v1;
+
+        if (cell.getFlipHorizontally()) {
+            swap(vertices, offset + U1, offset + U3);
+            swap(vertices, offset + U2, offset + U4);
+        }
+        if (cell.getFlipVertically()) {
+            swap(vertices, offset + V1, offset + V3);
+            swap(vertices, offset + V2, offset + V4);
+        }
+        switch (cell.getRotation()) {
+            case TiledMapTileLayer.Cell.ROTATE_90:
+                rotate(vertices, offset + V1, offset + V2, offset + V3, offset + V4);
+                rotate(vertices, offset + U1, offset + U2, offset + U3, offset + U4);
+                break;
+            case TiledMapTileLayer.Cell.ROTATE_180:
+                swap(vertices, offset + U1, offset + U3);
+                swap(vertices, offset + U2, offset + U4);
+                swap(vertices, offset + V1, offset + V3);
+                swap(vertices, offset + V2, offset + V4);
+                break;
+            case TiledMapTileLayer.Cell.ROTATE_270:
+                rotate(vertices, offset + V1, offset + V4, offset + V3, offset + V2);
+                rotate(vertices, offset + U1, offset + U4, offset + U3, offset + U2);
+                break;
+        }
+    }
+
+    private static void swap(float[] vertices, int a, int b) {
+        final float temp = vertices[a];
+        vertices[a] = vertices[b];
+        vertices[b] = temp;
+    }
+
+    /** a takes b, b takes c, c takes d, d takes a. */
+    private static void rotate(float[] vertices, int a, int b, int c, int d) {
+        final float temp = vertices[a];
+        vertices[a] = vertices[b];
+        vertices[b] = vertices[c];
+        vertices[c] = vertices[d];
+        vertices[d] = temp;
+    }
+}
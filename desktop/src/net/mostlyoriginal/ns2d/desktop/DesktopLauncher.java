@@ -3,6 +3,7 @@ package net.mostlyoriginal.ns2d.desktop;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import net.mostlyoriginal.ns2d.NsGame;
+import net.mostlyoriginal.ns2d.api.ForkJoinTaskRunner;
 
 public class DesktopLauncher {
 	public static void main (String[] arg) {
@@ -23,7 +24,9 @@ public class DesktopLauncher {
         config.width  = 1280;
         config.height = 720;
         config.audioDeviceSimultaneousSources=64;
-		new LwjglApplication(new NsGame(), config);
+        // run independent systems side by side with -Dparallel=true.
+        final boolean parallel = Boolean.getBoolean("parallel");
+		new LwjglApplication(new NsGame(parallel ? new ForkJoinTaskRunner() : null), config);
 	}
 }
 
@@ -0,0 +1,67 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Bytes allocated by the simulation thread, and garbage collector activity, since construction.
+ * <p/>
+ * Allocation counting needs a HotSpot based JVM, elsewhere it reads -1.
+ */
+public class AllocationMeter {
+
+    private final long startBytes;
+    /** bytes a reading allocates itself. */
+    private final long readingBytes;
+    private final long startCollections;
+    private final long startCollectionMillis;
+
+    public AllocationMeter() {
+        // the first look at the collectors allocates, keep that out of the count.
+        startCollections = count(false);
+        startCollectionMillis = count(true);
+        // so does each reading, measure it and take it off.
+        allocatedBytes();
+        final long first = allocatedBytes();
+        startBytes = allocatedBytes();
+        readingBytes = startBytes - first;
+    }
+
+    /**
+     * @return bytes allocated by the calling thread, -1 if the JVM can't tell.
+     */
+    public long allocated() {
+        final long bytes = allocatedBytes();
+        return bytes < 0 || startBytes < 0 ? -1 : bytes - startBytes - readingBytes;
+    }
+
+    public long collections() {
+        return count(false) - startCollections;
+    }
+
+    public long collectionMillis() {
+        return count(true) - startCollectionMillis;
+    }
+
+    @Override
+    public String toString() {
+        return (allocated() / (1024 * 1024)) + "MB allocated, " + collections() + " gcs taking " + collectionMillis() + "ms";
+    }
+
+    private static long allocatedBytes() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long count(boolean millis) {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, millis ? collector.getCollectionTime() : collector.getCollectionCount());
+        }
+        return total;
+    }
+}
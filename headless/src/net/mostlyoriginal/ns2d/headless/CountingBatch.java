@@ -0,0 +1,238 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.NumberUtils;
+
+/**
+ * Batch stand-in that draws nothing, but counts what a {@link com.badlogic.gdx.graphics.g2d.SpriteBatch}
+ * of the same size would send to the GPU.
+ * <p/>
+ * Like SpriteBatch, it flushes when the texture changes, when the buffer is full, when the
+ * shader or projection changes while drawing, and on {@link #flush()} and {@link #end()}.
+ * A flush with sprites pending is a draw call.
+ */
+public class CountingBatch implements Batch {
+
+    private final int size;
+
+    /** draw calls since begin, like SpriteBatch. */
+    public int renderCalls;
+    /** draw calls since construction. */
+    public int totalRenderCalls;
+    public int begins;
+    /** sprites drawn since construction. */
+    public int sprites;
+
+    private int pending;
+    private Texture lastTexture;
+    private boolean drawing;
+    private boolean blending = true;
+    private int blendSrcFunc = GL20.GL_SRC_ALPHA;
+    private int blendDstFunc = GL20.GL_ONE_MINUS_SRC_ALPHA;
+
+    private final Color color = new Color(1, 1, 1, 1);
+    private final Matrix4 projectionMatrix = new Matrix4();
+    private final Matrix4 transformMatrix = new Matrix4();
+
+    /**
+     * @param size sprites per flush, as passed to SpriteBatch.
+     */
+    public CountingBatch(int size) {
+        this.size = size;
+    }
+
+    @Override
+    public void begin() {
+        if (drawing) throw new IllegalStateException("SpriteBatch.end must be called before begin.");
+        renderCalls = 0;
+        begins++;
+        drawing = true;
+    }
+
+    @Override
+    public void end() {
+        if (!drawing) throw new IllegalStateException("SpriteBatch.begin must be called before end.");
+        if (pending > 0) flush();
+        lastTexture = null;
+        drawing = false;
+    }
+
+    @Override
+    public void flush() {
+        if (pending == 0) return;
+        renderCalls++;
+        totalRenderCalls++;
+        pending = 0;
+    }
+
+    private void submit(Texture texture, int count) {
+        if (!drawing) throw new IllegalStateException("SpriteBatch.begin must be called before draw.");
+        if (texture != lastTexture) {
+            flush();
+            lastTexture = texture;
+        }
+        sprites += count;
+        while (count > 0) {
+            if (pending == size) flush();
+            final int taken = Math.min(count, size - pending);
+            pending += taken;
+            count -= taken;
+        }
+    }
+
+    @Override
+    public void setColor(Color tint) {
+        color.set(tint);
+    }
+
+    @Override
+    public void setColor(float r, float g, float b, float a) {
+        color.set(r, g, b, a);
+    }
+
+    @Override
+    public void setColor(float color) {
+        final int bits = NumberUtils.floatToIntColor(color);
+        this.color.set((bits & 0xff) / 255f, ((bits >>> 8) & 0xff) / 255f, ((bits >>> 16) & 0xff) / 255f, ((bits >>> 24) & 0xff) / 255f);
+    }
+
+    @Override
+    public Color getColor() {
+        return color;
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+        submit(texture, 1);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+        submit(texture, 1);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+        submit(texture, 1);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2, float v2) {
+        submit(texture, 1);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y) {
+        submit(texture, 1);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height) {
+        submit(texture, 1);
+    }
+
+    @Override
+    public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+        // 20 floats per sprite.
+        submit(texture, count / 20);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y) {
+        submit(region.getTexture(), 1);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float width, float height) {
+        submit(region.getTexture(), 1);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation) {
+        submit(region.getTexture(), 1);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, boolean clockwise) {
+        submit(region.getTexture(), 1);
+    }
+
+    @Override
+    public void disableBlending() {
+        if (!blending) return;
+        flush();
+        blending = false;
+    }
+
+    @Override
+    public void enableBlending() {
+        if (blending) return;
+        flush();
+        blending = true;
+    }
+
+    @Override
+    public void setBlendFunction(int srcFunc, int dstFunc) {
+        if (blendSrcFunc == srcFunc && blendDstFunc == dstFunc) return;
+        flush();
+        blendSrcFunc = srcFunc;
+        blendDstFunc = dstFunc;
+    }
+
+    @Override
+    public int getBlendSrcFunc() {
+        return blendSrcFunc;
+    }
+
+    @Override
+    public int getBlendDstFunc() {
+        return blendDstFunc;
+    }
+
+    @Override
+    public Matrix4 getProjectionMatrix() {
+        return projectionMatrix;
+    }
+
+    @Override
+    public Matrix4 getTransformMatrix() {
+        return transformMatrix;
+    }
+
+    @Override
+    public void setProjectionMatrix(Matrix4 projection) {
+        if (drawing) flush();
+        projectionMatrix.set(projection);
+    }
+
+    @Override
+    public void setTransformMatrix(Matrix4 transform) {
+        if (drawing) flush();
+        transformMatrix.set(transform);
+    }
+
+    @Override
+    public void setShader(ShaderProgram shader) {
+        if (drawing) flush();
+    }
+
+    @Override
+    public boolean isBlendingEnabled() {
+        return blending;
+    }
+
+    @Override
+    public boolean isDrawing() {
+        return drawing;
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
@@ -0,0 +1,103 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.artemis.Entity;
+import com.artemis.World;
+import com.badlogic.gdx.math.MathUtils;
+import net.mostlyoriginal.ns2d.component.*;
+import net.mostlyoriginal.ns2d.system.passive.BulletPoolSystem;
+import net.mostlyoriginal.ns2d.util.EntityFactory;
+
+/**
+ * Count bytes allocated and garbage collections under a scripted firefight, bullets built from
+ * new components and a cloned payload as before, against {@link EntityFactory#createBullet}
+ * drawing from {@link BulletPoolSystem}.
+ * <p/>
+ * Every step fires a volley and retires the oldest volley once the air is full, so the number
+ * of live bullets stays constant.
+ * Usage: FirefightBenchmark [bullets per step] [bullets alive], defaults to 40 2400.
+ * Needs no display, natives or assets. Allocation counting needs a HotSpot based JVM.
+ */
+public class FirefightBenchmark {
+
+    public static final int DEFAULT_PER_STEP = 40;
+    public static final int DEFAULT_ALIVE = 2400;
+    public static final float STEP = 1 / 60f;
+    public static final int WARMUP_STEPS = 2000;
+    public static final int MEASURED_STEPS = 5000;
+
+    public static void main(String[] arg) {
+        final int perStep = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_PER_STEP;
+        final int alive = arg.length > 1 ? Integer.parseInt(arg[1]) : DEFAULT_ALIVE;
+
+        System.out.println(perStep + " bullets per step, " + alive + " alive, " + MEASURED_STEPS + " steps");
+        measure("new", false, perStep, alive);
+        measure("pooled", true, perStep, alive);
+        System.exit(0);
+    }
+
+    private static void measure(String name, boolean pooled, int perStep, int alive) {
+        final World world = new World();
+        world.setSystem(new BulletPoolSystem());
+        world.initialize();
+        world.setDelta(STEP);
+
+        final Payload template = new Payload();
+        template.type = Payload.DamageType.EXPLOSIVE;
+        template.minDamage = 2;
+        template.maxDamage = 4;
+        template.maxLifetime = 2;
+
+        final Entity[] air = new Entity[alive];
+        int next = 0;
+        MathUtils.random.setSeed(perStep);
+
+        AllocationMeter allocations = null;
+        for (int step = 0; step < WARMUP_STEPS + MEASURED_STEPS; step++) {
+            if (step == WARMUP_STEPS) {
+                allocations = new AllocationMeter();
+            }
+            for (int i = 0; i < perStep; i++) {
+                if (air[next] != null) {
+                    air[next].deleteFromWorld();
+                }
+                final float x = MathUtils.random(0f, 2000f);
+                final float y = MathUtils.random(0f, 2000f);
+                air[next] = pooled ? pooled(world, x, y, template) : fresh(world, x, y, template);
+                next = (next + 1) % alive;
+            }
+            world.process();
+        }
+
+        final long bytes = allocations.allocated();
+        final long bullets = (long) perStep * MEASURED_STEPS;
+        System.out.println(String.format("%-6s %8.1f bytes per bullet, %d gcs taking %dms",
+                name, bytes < 0 ? -1f : bytes / (float) bullets, allocations.collections(), allocations.collectionMillis()));
+    }
+
+    /**
+     * Bullet as built before pooling, with the weapon's payload cloned onto it.
+     */
+    private static Entity fresh(World world, float x, float y, Payload template) {
+        final Physics physics = new Physics();
+        physics.friction = 0.01f;
+        final Payload payload = template.clone();
+        payload.triggerGroup = "enemy";
+        return world.createEntity().edit()
+                .add(new Pos(x, y))
+                .add(new Anim("bullet", Anim.Layer.BULLETS))
+                .add(physics)
+                .add(new Gravity(-4f))
+                .add(new ContinuousCollision())
+                .add(new Bounds(7, 4))
+                .add(payload).getEntity();
+    }
+
+    /**
+     * Bullet as {@link net.mostlyoriginal.ns2d.system.active.WeaponSystem} builds it now.
+     */
+    private static Entity pooled(World world, float x, float y, Payload template) {
+        final Entity bullet = EntityFactory.createBullet(world, x, y);
+        bullet.getComponent(Payload.class).set(template).triggerGroup = "enemy";
+        return bullet;
+    }
+}
@@ -0,0 +1,107 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.artemis.Entity;
+import com.artemis.managers.TagManager;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.math.MathUtils;
+import net.mostlyoriginal.ns2d.G;
+import net.mostlyoriginal.ns2d.MainScreen;
+import net.mostlyoriginal.ns2d.component.*;
+import net.mostlyoriginal.ns2d.system.active.FusedPhysicsSystem;
+import net.mostlyoriginal.ns2d.system.passive.MapSystem;
+
+/**
+ * Time physics per step in the game world, {@link FusedPhysicsSystem.Mode#STEPS} against
+ * {@link FusedPhysicsSystem.Mode#FUSED}.
+ * <p/>
+ * Adds falling debris to the first stage, a quarter of it homing in on the player, so there
+ * is something to measure. Both modes start from the same seed, and must end up with the
+ * debris in the same place.
+ * Usage: FusedPhysicsBenchmark [debris counts...], defaults to 1000 10000 50000, from the assets directory.
+ */
+public class FusedPhysicsBenchmark extends ApplicationAdapter {
+
+    public static final int WARMUP_STEPS = 300;
+    /** at least {@link net.mostlyoriginal.ns2d.system.passive.ProfilerSystem#SAMPLES}, so the median covers only these. */
+    public static final int MEASURED_STEPS = 600;
+
+    private final int[] counts;
+
+    public FusedPhysicsBenchmark(int[] counts) {
+        this.counts = counts;
+    }
+
+    public static void main(String[] arg) {
+        final int[] counts = arg.length > 0 ? new int[arg.length] : new int[]{1000, 10000, 50000};
+        for (int i = 0; i < arg.length; i++) {
+            counts[i] = Integer.parseInt(arg[i]);
+        }
+        new HeadlessApplication(new FusedPhysicsBenchmark(counts));
+    }
+
+    @Override
+    public void create() {
+        HeadlessSimulation.stubDevices();
+
+        System.out.println("debris, steps us/step, fused us/step, speedup (p50 of physics systems)");
+        for (int count : counts) {
+            final long[] checksums = new long[2];
+            final long steps = measure(count, FusedPhysicsSystem.Mode.STEPS, checksums, 0);
+            final long fused = measure(count, FusedPhysicsSystem.Mode.FUSED, checksums, 1);
+            if (checksums[0] != checksums[1]) {
+                throw new IllegalStateException("debris ended up elsewhere, steps " + checksums[0] + ", fused " + checksums[1]);
+            }
+            System.out.println(String.format("%d, %d, %d, %.2fx", count, steps / 1000, fused / 1000, steps / (float) fused));
+        }
+        Gdx.app.exit();
+    }
+
+    /**
+     * @return median nanoseconds spent in physics per step.
+     */
+    private long measure(int count, FusedPhysicsSystem.Mode mode, long[] checksums, int index) {
+        MathUtils.random.setSeed(count);
+        G.physicsMode = mode;
+        final MainScreen screen = HeadlessSimulation.newScreen();
+        // first step spawns the map entities.
+        screen.simulate(MainScreen.SIM_STEP);
+
+        final Entity player = G.world.getManager(TagManager.class).getEntity("player");
+        final MapSystem mapSystem = G.world.getSystem(MapSystem.class);
+        final float width = (mapSystem.getWidth() - 2) * G.CELL_SIZE;
+        final float height = (mapSystem.getHeight() - 2) * G.CELL_SIZE;
+        final Entity[] debris = new Entity[count];
+        for (int i = 0; i < count; i++) {
+            final Physics physics = new Physics();
+            physics.vx = MathUtils.random(-100f, 100f);
+            physics.vy = MathUtils.random(-100f, 100f);
+            physics.vr = MathUtils.random(-90f, 90f);
+            physics.friction = 0.1f;
+            debris[i] = G.world.createEntity().edit()
+                    .add(new Pos(G.CELL_SIZE + MathUtils.random(width), G.CELL_SIZE + MathUtils.random(height)))
+                    .add(physics)
+                    .add(new Gravity())
+                    .add(new Bounds(4, 4))
+                    .add(new Anim("bullet", Anim.Layer.BULLETS))
+                    .getEntity();
+            if (i % 4 == 0) {
+                debris[i].edit().add(new Homing(player));
+            }
+        }
+
+        for (int i = 0; i < WARMUP_STEPS + MEASURED_STEPS; i++) {
+            screen.simulate(MainScreen.SIM_STEP);
+        }
+
+        long checksum = 0;
+        for (Entity e : debris) {
+            final Pos pos = e.getComponent(Pos.class);
+            checksum = checksum * 31 + Float.floatToIntBits(pos.x);
+            checksum = checksum * 31 + Float.floatToIntBits(pos.y);
+        }
+        checksums[index] = checksum;
+        return HeadlessSimulation.physicsNanos();
+    }
+}
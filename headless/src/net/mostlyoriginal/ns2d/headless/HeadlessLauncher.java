@@ -0,0 +1,22 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import net.mostlyoriginal.ns2d.system.active.FusedPhysicsSystem;
+
+/**
+ * Run the simulation without a display, as fast as the CPU allows.
+ * <p/>
+ * Usage: HeadlessLauncher [simulated minutes] [profile dump .csv or .jsonl], from the assets directory.
+ * Pick the physics pipeline with -Dphysics=steps|fused|verify, keep all weapons firing with -Dfirefight=true.
+ */
+public class HeadlessLauncher {
+
+    public static final float DEFAULT_MINUTES = 5;
+
+    public static void main(String[] arg) {
+        final float minutes = arg.length > 0 ? Float.parseFloat(arg[0]) : DEFAULT_MINUTES;
+        final String profileDump = arg.length > 1 ? arg[1] : null;
+        final FusedPhysicsSystem.Mode physics = FusedPhysicsSystem.Mode.valueOf(System.getProperty("physics", "steps").toUpperCase());
+        new HeadlessApplication(new HeadlessSimulation(minutes, profileDump, physics, Boolean.getBoolean("firefight")));
+    }
+}
@@ -0,0 +1,158 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.artemis.Entity;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.TimeUtils;
+import net.mostlyoriginal.ns2d.G;
+import net.mostlyoriginal.ns2d.MainScreen;
+import net.mostlyoriginal.ns2d.component.Weapon;
+import net.mostlyoriginal.ns2d.system.active.*;
+import net.mostlyoriginal.ns2d.system.passive.ProfilerSystem;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
+
+/**
+ * Simulates a fixed amount of game time back to back, then reports and exits.
+ */
+public class HeadlessSimulation extends ApplicationAdapter {
+
+    private static final String TAG = "headless";
+
+    /** simulated seconds between profile dumps. */
+    public static final float PROFILE_INTERVAL = 10;
+    /** as the desktop launcher. */
+    public static final int WINDOW_WIDTH = 1280;
+    public static final int WINDOW_HEIGHT = 720;
+
+    private final float minutes;
+    private final String profileDump;
+    private final FusedPhysicsSystem.Mode physics;
+    private final boolean firefight;
+    private AllocationMeter allocations;
+
+    /**
+     * @param profileDump file to append system timings to, JSON lines if it ends in .jsonl, CSV otherwise. Null for none.
+     * @param physics physics pipeline to simulate with.
+     * @param firefight keep every weapon firing, as a stress test.
+     */
+    public HeadlessSimulation(float minutes, String profileDump, FusedPhysicsSystem.Mode physics, boolean firefight) {
+        this.minutes = minutes;
+        this.profileDump = profileDump;
+        this.physics = physics;
+        this.firefight = firefight;
+    }
+
+    @Override
+    public void create() {
+
+        stubDevices();
+
+        G.physicsMode = physics;
+        final MainScreen screen = newScreen();
+        if (profileDump != null) {
+            G.world.getSystem(ProfilerSystem.class).dumpTo(Gdx.files.local(profileDump), profileDump.endsWith(".jsonl"), PROFILE_INTERVAL);
+        }
+
+        final int stepsPerMinute = Math.round(60 / MainScreen.SIM_STEP);
+        final int steps = Math.round(minutes * stepsPerMinute);
+        final long start = TimeUtils.nanoTime();
+        allocations = new AllocationMeter();
+
+        for (int step = 1; step <= steps; step++) {
+            if (firefight) {
+                pullTriggers();
+            }
+            screen.simulate(MainScreen.SIM_STEP);
+            if (step % stepsPerMinute == 0) {
+                report(step / stepsPerMinute + " min", stepsPerMinute, step, start);
+            }
+        }
+        report("done", stepsPerMinute, steps, start);
+        reportPhysics();
+
+        Gdx.app.exit();
+    }
+
+    private void report(String label, int stepsPerMinute, int steps, long start) {
+        final float seconds = (TimeUtils.nanoTime() - start) / 1000000000f;
+        final float simulated = steps * 60f / stepsPerMinute;
+        Gdx.app.log(TAG, label +
+                ", " + steps + " steps in " + seconds + "s" +
+                ", " + (seconds > 0 ? simulated / seconds : 0) + "x realtime" +
+                ", " + G.world.getEntityManager().getActiveEntityCount() + " entities" +
+                ", " + G.world.getSystem(ParticleSystem.class).size() + " particles" +
+                ", " + allocations);
+    }
+
+    /**
+     * Fire every weapon in the world, players, sentries and aliens alike.
+     */
+    public static void pullTriggers() {
+        final ImmutableBag<Entity> guns = G.world.getSystem(WeaponSystem.class).getActives();
+        for (int i = 0, s = guns.size(); s > i; i++) {
+            guns.get(i).getComponent(Weapon.class).firing = true;
+        }
+    }
+
+    /**
+     * Median time spent in physics per step over the last samples, to compare pipelines.
+     */
+    private void reportPhysics() {
+        Gdx.app.log(TAG, "physics " + physics.name().toLowerCase() + ", " + physicsNanos() / 1000 + "us per step (p50)");
+
+        final FusedPhysicsSystem fused = G.world.getSystem(FusedPhysicsSystem.class);
+        if (fused != null && physics == FusedPhysicsSystem.Mode.VERIFY) {
+            Gdx.app.log(TAG, "verify, " + fused.mismatches + " mismatched entities in " + fused.mismatchedSteps + " steps");
+        }
+    }
+
+    /**
+     * Assets still load, but nothing reaches a GPU or sound device. The headless backend
+     * leaves Gdx.gl unset, and mocks audio and input already.
+     */
+    public static void stubDevices() {
+        if (Gdx.gl == null) {
+            Gdx.gl = Gdx.gl20 = Stubs.of(GL20.class);
+        }
+        if (Gdx.audio == null) {
+            Gdx.audio = Stubs.of(Audio.class);
+        }
+        if (Gdx.input == null) {
+            Gdx.input = Stubs.of(Input.class);
+        }
+        // cameras and the mouse cursor need a viewport, mocked graphics are 0x0.
+        Gdx.graphics = Stubs.window(Gdx.graphics != null ? Gdx.graphics : Stubs.of(Graphics.class), WINDOW_WIDTH, WINDOW_HEIGHT);
+    }
+
+    /**
+     * @return game screen in {@link G#physicsMode}. Render systems are registered for the
+     * logic to call into, never processed.
+     */
+    public static MainScreen newScreen() {
+        return new MainScreen(true, new RenderPipelineSystem(
+                new CountingBatch(RenderPipelineSystem.WORLD_BATCH_SIZE), new CountingBatch(1000)));
+    }
+
+    /**
+     * @return median nanoseconds spent in physics per step, over the last profiled steps.
+     */
+    public static long physicsNanos() {
+        long nanos = 0;
+        for (ProfilerSystem.Profile profile : G.world.getSystem(ProfilerSystem.class).getProfiles()) {
+            if (profile.system instanceof GravitySystem ||
+                    profile.system instanceof HomingSystem ||
+                    profile.system instanceof InbetweenSystem ||
+                    profile.system instanceof MapCollisionSystem ||
+                    profile.system instanceof AfterPhysicsSystem ||
+                    profile.system instanceof FusedPhysicsSystem) {
+                nanos += profile.nanos.percentile(0.5f);
+            }
+        }
+        return nanos;
+    }
+}
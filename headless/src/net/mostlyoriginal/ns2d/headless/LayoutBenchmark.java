@@ -0,0 +1,171 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.EntitySystem;
+import com.artemis.World;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.TimeUtils;
+import net.mostlyoriginal.ns2d.component.Bounds;
+import net.mostlyoriginal.ns2d.component.Physics;
+import net.mostlyoriginal.ns2d.component.Pos;
+import net.mostlyoriginal.ns2d.util.PackedBodies;
+
+/**
+ * Compare {@link Pos}, {@link Physics} and {@link Bounds} as component objects against
+ * {@link PackedBodies}, in heap use and in how fast an integration loop gets through them.
+ * <p/>
+ * Usage: LayoutBenchmark [entities], defaults to 50000. Needs no display, natives or assets.
+ */
+public class LayoutBenchmark {
+
+    public static final int DEFAULT_ENTITIES = 50000;
+    public static final float STEP = 1 / 60f;
+    public static final int WARMUP_PASSES = 200;
+    public static final int MEASURED_PASSES = 1000;
+
+    private static float checksum;
+
+    public static void main(String[] arg) {
+        final int count = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_ENTITIES;
+
+        final World world = new World();
+        final Bodies bodies = world.setSystem(new Bodies(), true);
+        world.initialize();
+
+        // junk between components, so they end up spread out like they do in a running game.
+        final Object[] junk = new Object[count];
+        final Pos[] positions = new Pos[count];
+        final Physics[] physics = new Physics[count];
+        final Bounds[] bounds = new Bounds[count];
+        MathUtils.random.setSeed(count);
+
+        final long heapBefore = usedHeap();
+        for (int i = 0; i < count; i++) {
+            positions[i] = new Pos(MathUtils.random(0f, 4000f), MathUtils.random(0f, 4000f));
+            junk[i] = new float[MathUtils.random(1, 16)];
+            physics[i] = new Physics();
+            physics[i].vx = MathUtils.random(-100f, 100f);
+            physics[i].vy = MathUtils.random(-100f, 100f);
+            bounds[i] = new Bounds(8, 8);
+        }
+        for (int i = 0; i < count; i++) {
+            junk[i] = null;
+        }
+        final long heapObjects = usedHeap() - heapBefore;
+
+        for (int i = 0; i < count; i++) {
+            world.createEntity().edit().add(positions[i]).add(physics[i]).add(bounds[i]);
+        }
+        world.process();
+
+        final IntArray ids = new IntArray(count);
+        final long heapBeforePacked = usedHeap();
+        final PackedBodies packed = new PackedBodies(count);
+        final ImmutableBag<Entity> actives = bodies.getActives();
+        for (int i = 0, s = actives.size(); s > i; i++) {
+            final Entity e = actives.get(i);
+            packed.store(e.getId(), bodies.pm.get(e), bodies.ym.get(e), bodies.bm.get(e));
+            ids.add(e.getId());
+        }
+        final long heapPacked = usedHeap() - heapBeforePacked;
+
+        for (int i = 0; i < WARMUP_PASSES; i++) {
+            bodies.integrate();
+            integrate(packed, ids);
+        }
+
+        long start = TimeUtils.nanoTime();
+        for (int i = 0; i < MEASURED_PASSES; i++) {
+            bodies.integrate();
+        }
+        final double objectsMs = (TimeUtils.nanoTime() - start) / 1000000d / MEASURED_PASSES;
+
+        start = TimeUtils.nanoTime();
+        for (int i = 0; i < MEASURED_PASSES; i++) {
+            integrate(packed, ids);
+        }
+        final double packedMs = (TimeUtils.nanoTime() - start) / 1000000d / MEASURED_PASSES;
+
+        System.out.println(count + " entities (checksum " + checksum + ")");
+        System.out.println(String.format("objects: %d KB measured heap, %.3f ms per pass", heapObjects / 1024, objectsMs));
+        System.out.println(String.format("packed:  %d KB measured heap, %d KB in arrays, %.3f ms per pass", heapPacked / 1024, packed.memoryUsage() / 1024, packedMs));
+        System.exit(0);
+    }
+
+    /**
+     * Same integration as {@link net.mostlyoriginal.ns2d.system.active.AfterPhysicsSystem}, minus rotation.
+     */
+    private static void integrate(PackedBodies packed, IntArray ids) {
+        final float[] x = packed.x, y = packed.y, vx = packed.vx, vy = packed.vy, friction = packed.friction;
+        final int[] items = ids.items;
+        float sum = 0;
+        for (int i = 0, s = ids.size; i < s; i++) {
+            final int id = items[i];
+            x[id] += vx[id] * STEP;
+            y[id] += vy[id] * STEP;
+            vx[id] -= vx[id] * STEP * friction[id];
+            vy[id] -= vy[id] * STEP * friction[id];
+            sum += x[id] + y[id];
+        }
+        checksum += sum;
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Subscription to all bodies, integrated through component mappers.
+     */
+    private static class Bodies extends EntitySystem {
+
+        ComponentMapper<Pos> pm;
+        ComponentMapper<Physics> ym;
+        ComponentMapper<Bounds> bm;
+
+        public Bodies() {
+            super(Aspect.getAspectForAll(Pos.class, Physics.class, Bounds.class));
+            setPassive(true);
+        }
+
+        @Override
+        protected void initialize() {
+            pm = world.getMapper(Pos.class);
+            ym = world.getMapper(Physics.class);
+            bm = world.getMapper(Bounds.class);
+        }
+
+        public void integrate() {
+            final ImmutableBag<Entity> actives = getActives();
+            float sum = 0;
+            for (int i = 0, s = actives.size(); s > i; i++) {
+                final Entity e = actives.get(i);
+                final Pos pos = pm.get(e);
+                final Physics physics = ym.get(e);
+                pos.x += physics.vx * STEP;
+                pos.y += physics.vy * STEP;
+                physics.vx -= physics.vx * STEP * physics.friction;
+                physics.vy -= physics.vy * STEP * physics.friction;
+                sum += pos.x + pos.y;
+            }
+            checksum += sum;
+        }
+
+        @Override
+        protected void processEntities(ImmutableBag<Entity> entities) {
+        }
+
+        @Override
+        protected boolean checkProcessing() {
+            return false;
+        }
+    }
+}
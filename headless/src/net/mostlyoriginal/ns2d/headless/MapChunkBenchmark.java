@@ -0,0 +1,227 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Base64Coder;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.XmlReader;
+import net.mostlyoriginal.ns2d.util.TileChunks;
+
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Count tiles built and handed to the batch per frame, for the map drawn tile by tile
+ * with {@link OrthogonalTiledMapRenderer} against baked {@link TileChunks}.
+ * <p/>
+ * Loads the layers of a TMX map without its tileset image, and pans a game sized view over
+ * it, changing a cell now and then like {@link net.mostlyoriginal.ns2d.system.passive.MapSystem#setCell} does.
+ * Usage: MapChunkBenchmark [map], defaults to map1.tmx, from the assets directory. Needs no display or natives.
+ */
+public class MapChunkBenchmark {
+
+    public static final String DEFAULT_MAP = "map1.tmx";
+    /** desktop window at the game's camera zoom. */
+    public static final float VIEW_WIDTH = 1280 * 0.5f;
+    public static final float VIEW_HEIGHT = 720 * 0.5f;
+    public static final int WARMUP_FRAMES = 20000;
+    public static final int MEASURED_FRAMES = 20000;
+    public static final int FRAMES_PER_CELL_CHANGE = 60;
+
+    private static final int FLIP_HORIZONTALLY = 0x80000000;
+    private static final int FLIP_VERTICALLY = 0x40000000;
+    private static final int FLIP_DIAGONALLY = 0x20000000;
+
+    private static final Matrix4 projection = new Matrix4();
+
+    public static void main(String[] arg) throws IOException {
+        Gdx.gl = Gdx.gl20 = Stubs.of(GL20.class);
+        final TiledMap map = load(arg.length > 0 ? arg[0] : DEFAULT_MAP);
+
+        final Array<TiledMapTileLayer> layers = new Array<TiledMapTileLayer>();
+        int tiles = 0;
+        for (int i = 0; i < map.getLayers().getCount(); i++) {
+            final TiledMapTileLayer layer = (TiledMapTileLayer) map.getLayers().get(i);
+            layers.add(layer);
+            for (int ty = 0; ty < layer.getHeight(); ty++) {
+                for (int tx = 0; tx < layer.getWidth(); tx++) {
+                    if (layer.getCell(tx, ty) != null) tiles++;
+                }
+            }
+        }
+        final TiledMapTileLayer first = layers.first();
+        System.out.println(layers.size + " layers of " + first.getWidth() + "x" + first.getHeight() + ", " + tiles + " tiles, "
+                + (int) VIEW_WIDTH + "x" + (int) VIEW_HEIGHT + " view");
+
+        tileByTile(map, layers);
+        chunked(layers, TileChunks.DEFAULT_CHUNK_SIZE / 2);
+        chunked(layers, TileChunks.DEFAULT_CHUNK_SIZE);
+        chunked(layers, TileChunks.DEFAULT_CHUNK_SIZE * 2);
+        System.exit(0);
+    }
+
+    private static void tileByTile(TiledMap map, Array<TiledMapTileLayer> layers) {
+        final CountingBatch batch = new CountingBatch(1000);
+        final OrthogonalTiledMapRenderer renderer = new OrthogonalTiledMapRenderer(map, batch);
+
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            tileByTileFrame(renderer, batch, layers, frame);
+        }
+        final int sprites = batch.sprites;
+        final long start = TimeUtils.nanoTime();
+        for (int frame = 0; frame < MEASURED_FRAMES; frame++) {
+            tileByTileFrame(renderer, batch, layers, frame);
+        }
+        final double ms = (TimeUtils.nanoTime() - start) / 1000000d / MEASURED_FRAMES;
+        final float perFrame = (batch.sprites - sprites) / (float) MEASURED_FRAMES;
+
+        // every tile drawn is built again.
+        report("tile by tile", perFrame, perFrame, ms);
+    }
+
+    private static void tileByTileFrame(OrthogonalTiledMapRenderer renderer, CountingBatch batch, Array<TiledMapTileLayer> layers, int frame) {
+        changeCell(layers, frame, null);
+        batch.begin();
+        for (int i = 0; i < layers.size; i++) {
+            renderer.setView(projection, viewX(frame), viewY(frame), VIEW_WIDTH, VIEW_HEIGHT);
+            renderer.renderTileLayer(layers.get(i));
+        }
+        batch.end();
+    }
+
+    private static void chunked(Array<TiledMapTileLayer> layers, int chunkSize) {
+        final CountingBatch batch = new CountingBatch(1000);
+        final TileChunks[] chunks = new TileChunks[layers.size];
+        for (int i = 0; i < layers.size; i++) {
+            chunks[i] = new TileChunks(layers.get(i), chunkSize);
+        }
+
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            chunkedFrame(chunks, batch, layers, frame);
+        }
+        int baked = 0, submitted = 0;
+        for (TileChunks layer : chunks) {
+            baked -= layer.tilesBaked;
+            submitted -= layer.tilesSubmitted;
+        }
+        final long start = TimeUtils.nanoTime();
+        for (int frame = 0; frame < MEASURED_FRAMES; frame++) {
+            chunkedFrame(chunks, batch, layers, frame);
+        }
+        final double ms = (TimeUtils.nanoTime() - start) / 1000000d / MEASURED_FRAMES;
+        for (TileChunks layer : chunks) {
+            baked += layer.tilesBaked;
+            submitted += layer.tilesSubmitted;
+        }
+
+        report("chunks of " + chunkSize, baked / (float) MEASURED_FRAMES, submitted / (float) MEASURED_FRAMES, ms);
+    }
+
+    private static void chunkedFrame(TileChunks[] chunks, CountingBatch batch, Array<TiledMapTileLayer> layers, int frame) {
+        changeCell(layers, frame, chunks);
+        batch.begin();
+        final float x = viewX(frame);
+        final float y = viewY(frame);
+        for (TileChunks layer : chunks) {
+            layer.render(batch, x, y, x + VIEW_WIDTH, y + VIEW_HEIGHT);
+        }
+        batch.end();
+    }
+
+    /**
+     * Every so often, swap two cells of the first layer, the same ones for every renderer.
+     */
+    private static void changeCell(Array<TiledMapTileLayer> layers, int frame, TileChunks[] chunks) {
+        if (frame % FRAMES_PER_CELL_CHANGE != 0) return;
+        final TiledMapTileLayer layer = layers.first();
+        MathUtils.random.setSeed(frame);
+        final int x1 = MathUtils.random(layer.getWidth() - 1), y1 = MathUtils.random(layer.getHeight() - 1);
+        final int x2 = MathUtils.random(layer.getWidth() - 1), y2 = MathUtils.random(layer.getHeight() - 1);
+        final TiledMapTileLayer.Cell cell = layer.getCell(x1, y1);
+        layer.setCell(x1, y1, layer.getCell(x2, y2));
+        layer.setCell(x2, y2, cell);
+        if (chunks != null) {
+            chunks[0].invalidate(x1, y1);
+            chunks[0].invalidate(x2, y2);
+        }
+    }
+
+    /** pan back and forth over the 50 tile map, like a player running around. */
+    private static float viewX(int frame) {
+        return 400 + 400 * MathUtils.sin(frame * 0.011f);
+    }
+
+    private static float viewY(int frame) {
+        return 600 + 500 * MathUtils.cos(frame * 0.007f);
+    }
+
+    private static void report(String name, float built, float submitted, double ms) {
+        System.out.println(String.format("%-13s %6.1f tiles built, %6.1f tiles submitted per frame, %.3f ms per frame",
+                name, built, submitted, ms));
+    }
+
+    /**
+     * Tile layers of a TMX map with base64 encoded, uncompressed data, on a tileset without pixels.
+     */
+    private static TiledMap load(String path) throws IOException {
+        final FileReader reader = new FileReader(path);
+        final XmlReader.Element root;
+        try {
+            root = new XmlReader().parse(reader);
+        } finally {
+            reader.close();
+        }
+
+        final int tileWidth = root.getIntAttribute("tilewidth");
+        final int tileHeight = root.getIntAttribute("tileheight");
+        final XmlReader.Element image = root.getChildByName("tileset").getChildByName("image");
+        final int tilesPerRow = image.getIntAttribute("width") / tileWidth;
+        final Texture tileset = Stubs.texture();
+        final IntMap<TiledMapTile> tiles = new IntMap<TiledMapTile>();
+
+        final TiledMap map = new TiledMap();
+        for (XmlReader.Element element : root.getChildrenByName("layer")) {
+            final int width = element.getIntAttribute("width");
+            final int height = element.getIntAttribute("height");
+            final TiledMapTileLayer layer = new TiledMapTileLayer(width, height, tileWidth, tileHeight);
+            layer.setName(element.getAttribute("name"));
+
+            final byte[] data = Base64Coder.decode(element.getChildByName("data").getText().trim());
+            for (int ty = 0; ty < height; ty++) {
+                for (int tx = 0; tx < width; tx++) {
+                    final int i = (ty * width + tx) * 4;
+                    final int raw = (data[i] & 0xff) | (data[i + 1] & 0xff) << 8 | (data[i + 2] & 0xff) << 16 | (data[i + 3] & 0xff) << 24;
+                    final int gid = raw & ~(FLIP_HORIZONTALLY | FLIP_VERTICALLY | FLIP_DIAGONALLY);
+                    if (gid == 0) continue;
+
+                    TiledMapTile tile = tiles.get(gid);
+                    if (tile == null) {
+                        final int id = gid - 1;
+                        tile = new StaticTiledMapTile(new TextureRegion(tileset,
+                                (id % tilesPerRow) * tileWidth, (id / tilesPerRow) * tileHeight, tileWidth, tileHeight));
+                        tiles.put(gid, tile);
+                    }
+                    final TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+                    cell.setTile(tile);
+                    cell.setFlipHorizontally((raw & FLIP_HORIZONTALLY) != 0);
+                    cell.setFlipVertically((raw & FLIP_VERTICALLY) != 0);
+                    // TMX rows run top down.
+                    layer.setCell(tx, height - 1 - ty, cell);
+                }
+            }
+            map.getLayers().add(layer);
+        }
+        return map;
+    }
+}
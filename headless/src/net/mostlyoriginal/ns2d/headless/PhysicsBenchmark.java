@@ -0,0 +1,90 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.artemis.Entity;
+import com.artemis.EntityEdit;
+import com.artemis.World;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.TimeUtils;
+import net.mostlyoriginal.ns2d.api.ForkJoinTaskRunner;
+import net.mostlyoriginal.ns2d.api.ParallelEntityProcessingSystem;
+import net.mostlyoriginal.ns2d.api.TaskRunner;
+import net.mostlyoriginal.ns2d.component.Gravity;
+import net.mostlyoriginal.ns2d.component.Homing;
+import net.mostlyoriginal.ns2d.component.Physics;
+import net.mostlyoriginal.ns2d.component.Pos;
+import net.mostlyoriginal.ns2d.system.active.AfterPhysicsSystem;
+import net.mostlyoriginal.ns2d.system.active.GravitySystem;
+import net.mostlyoriginal.ns2d.system.active.HomingSystem;
+import net.mostlyoriginal.ns2d.system.active.PhysicsSystem;
+
+/**
+ * Time the physics integrators over a field of particles, serial versus chunked.
+ * <p/>
+ * Usage: PhysicsBenchmark [particle counts...], defaults to 1000 10000 100000.
+ * Needs no display, natives or assets.
+ */
+public class PhysicsBenchmark {
+
+    public static final float STEP = 1 / 60f;
+    public static final int WARMUP_STEPS = 200;
+    public static final int MEASURED_STEPS = 500;
+
+    public static void main(String[] arg) {
+        final int[] counts = arg.length > 0 ? new int[arg.length] : new int[]{1000, 10000, 100000};
+        for (int i = 0; i < arg.length; i++) {
+            counts[i] = Integer.parseInt(arg[i]);
+        }
+
+        final ForkJoinTaskRunner pool = new ForkJoinTaskRunner();
+        System.out.println("particles, serial ms/step, parallel ms/step, speedup (" + Runtime.getRuntime().availableProcessors() + " cores)");
+        for (int count : counts) {
+            final double serial = measure(count, null);
+            final double parallel = measure(count, pool);
+            System.out.println(String.format("%d, %.3f, %.3f, %.2fx", count, serial, parallel, serial / parallel));
+        }
+        System.exit(0);
+    }
+
+    /**
+     * @return average milliseconds per step.
+     */
+    private static double measure(int particles, TaskRunner runner) {
+        final World world = new World();
+        world.setSystem(new PhysicsSystem(), true);
+        world.setSystem(parallel(new GravitySystem(), runner));
+        world.setSystem(parallel(new HomingSystem(), runner));
+        world.setSystem(parallel(new AfterPhysicsSystem(), runner));
+        world.initialize();
+        world.setDelta(STEP);
+
+        MathUtils.random.setSeed(particles);
+        final Entity target = world.createEntity().edit()
+                .add(new Pos(0, 0))
+                .add(new Physics()).getEntity();
+        for (int i = 0; i < particles; i++) {
+            final EntityEdit edit = world.createEntity().edit()
+                    .add(new Pos(MathUtils.random(-1000f, 1000f), MathUtils.random(-1000f, 1000f)))
+                    .add(new Physics())
+                    .add(new Gravity());
+            // a quarter of them home in, like rockets do.
+            if (i % 4 == 0) {
+                edit.add(new Homing(target));
+            }
+        }
+
+        for (int i = 0; i < WARMUP_STEPS; i++) {
+            world.process();
+        }
+
+        final long start = TimeUtils.nanoTime();
+        for (int i = 0; i < MEASURED_STEPS; i++) {
+            world.process();
+        }
+        return (TimeUtils.nanoTime() - start) / 1000000d / MEASURED_STEPS;
+    }
+
+    private static <S extends ParallelEntityProcessingSystem<?>> S parallel(S system, TaskRunner runner) {
+        system.setTaskRunner(runner);
+        return system;
+    }
+}
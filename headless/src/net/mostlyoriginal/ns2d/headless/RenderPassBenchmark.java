@@ -0,0 +1,79 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.artemis.EntitySystem;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import net.mostlyoriginal.ns2d.G;
+import net.mostlyoriginal.ns2d.MainScreen;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
+
+/**
+ * Count batches, flushes and draw calls of one frame of the game, drawn by the real render
+ * systems through the shared {@link RenderPipelineSystem} into {@link CountingBatch}es.
+ * <p/>
+ * Plays the first stage with every weapon firing until the frame is busy, then draws one
+ * frame system by system, in {@link MainScreen} order. Before the pipeline every system that
+ * drew began a batch of its own, which the report compares against.
+ * Usage: RenderPassBenchmark [seconds], defaults to 60 of play first, from the assets directory.
+ */
+public class RenderPassBenchmark extends ApplicationAdapter {
+
+    public static final int DEFAULT_SECONDS = 60;
+    public static final float FRAME = 1 / 60f;
+
+    private final int seconds;
+
+    public RenderPassBenchmark(int seconds) {
+        this.seconds = seconds;
+    }
+
+    public static void main(String[] arg) {
+        new HeadlessApplication(new RenderPassBenchmark(arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_SECONDS));
+    }
+
+    @Override
+    public void create() {
+        HeadlessSimulation.stubDevices();
+        final CountingBatch worldBatch = new CountingBatch(RenderPipelineSystem.WORLD_BATCH_SIZE);
+        final CountingBatch guiBatch = new CountingBatch(1000);
+        final RenderPipelineSystem pipeline = new RenderPipelineSystem(worldBatch, guiBatch);
+        final MainScreen screen = new MainScreen(false, pipeline);
+
+        for (int i = 0, steps = Math.round(seconds / MainScreen.SIM_STEP); i < steps; i++) {
+            HeadlessSimulation.pullTriggers();
+            screen.simulate(MainScreen.SIM_STEP);
+        }
+
+        final ImmutableBag<EntitySystem> systems = screen.getRenderSystems();
+        G.world.setDelta(FRAME);
+        int drawing = 0;
+        int sprites = 0;
+        for (int i = 0, s = systems.size(); s > i; i++) {
+            final EntitySystem system = systems.get(i);
+            final int before = worldBatch.sprites + guiBatch.sprites;
+            system.process();
+            final int drawn = worldBatch.sprites + guiBatch.sprites - before;
+            if (drawn > 0) {
+                drawing++;
+                sprites += drawn;
+                System.out.println(String.format("%-27s %5d sprites and glyphs", system.getClass().getSimpleName(), drawn));
+            }
+        }
+        pipeline.endFrame();
+
+        final int begins = worldBatch.begins + guiBatch.begins;
+        final int drawCalls = worldBatch.totalRenderCalls + guiBatch.totalRenderCalls;
+        if (pipeline.passes != begins) {
+            throw new IllegalStateException("pipeline counted " + pipeline.passes + " passes, batches began " + begins + " times");
+        }
+
+        System.out.println(systems.size() + " render systems, " + drawing + " drew " + sprites + " sprites and glyphs");
+        System.out.println(String.format("batch per system  %2d begins, at least %2d draw calls", drawing, drawing));
+        System.out.println(String.format("shared pipeline   %2d begins, %2d draw calls, %d flushes from pass or shader switches",
+                pipeline.passes, drawCalls, pipeline.flushes));
+        System.out.println("note: the UIAlert* systems now draw in the world pass, before UIRenderSystem, so alerts show under the HUD.");
+        Gdx.app.exit();
+    }
+}
@@ -0,0 +1,198 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.EntitySystem;
+import com.artemis.World;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.TimeUtils;
+import net.mostlyoriginal.ns2d.component.Anim;
+import net.mostlyoriginal.ns2d.component.Pos;
+import net.mostlyoriginal.ns2d.component.Terminal;
+import net.mostlyoriginal.ns2d.system.active.TerminalSystem;
+import net.mostlyoriginal.ns2d.util.LayerBuckets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compare the old sorted entity list of {@link net.mostlyoriginal.ns2d.system.render.AnimRenderSystem}
+ * against {@link LayerBuckets}, under a steady churn of short-lived sprites on random layers.
+ * <p/>
+ * Both queues are walked in layer order every step, like a frame would, minus the drawing.
+ * Usage: RenderQueueBenchmark [alive], defaults to 20000. Needs no display, natives or assets.
+ */
+public class RenderQueueBenchmark {
+
+    public static final int DEFAULT_ALIVE = 20000;
+    public static final float STEP = 1 / 60f;
+    public static final float MIN_LIFETIME = 0.5f;
+    public static final float MAX_LIFETIME = 1.5f;
+    public static final int WARMUP_STEPS = 300;
+    public static final int MEASURED_STEPS = 600;
+
+    private static final Anim.Layer[] LAYERS = Anim.Layer.values();
+
+    private static float checksum;
+
+    public static void main(String[] arg) {
+        final int alive = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_ALIVE;
+        // average lifetime is one second, so this keeps about alive sprites around.
+        final int spawnsPerStep = Math.max(1, Math.round(alive * STEP));
+
+        final double baseline = measure(null, spawnsPerStep);
+        final double sorted = measure(new SortedQueue(), spawnsPerStep);
+        final double bucketed = measure(new BucketQueue(), spawnsPerStep);
+
+        System.out.println(alive + " sprites alive, " + spawnsPerStep + " spawned and expired per step (checksum " + checksum + ")");
+        System.out.println(String.format("sorted list: %.3f ms per step over baseline", sorted - baseline));
+        System.out.println(String.format("buckets:     %.3f ms per step over baseline", bucketed - baseline));
+        System.out.println(String.format("baseline (spawn and expire only): %.3f ms per step", baseline));
+        System.exit(0);
+    }
+
+    /**
+     * @param queue null to measure entity churn alone.
+     * @return average milliseconds per step.
+     */
+    private static double measure(EntitySystem queue, int spawnsPerStep) {
+        final World world = new World();
+        world.setSystem(new TerminalSystem());
+        if (queue != null) {
+            world.setSystem(queue);
+        }
+        world.initialize();
+        world.setDelta(STEP);
+        MathUtils.random.setSeed(spawnsPerStep);
+
+        for (int i = 0; i < WARMUP_STEPS; i++) {
+            step(world, spawnsPerStep);
+        }
+        final long start = TimeUtils.nanoTime();
+        for (int i = 0; i < MEASURED_STEPS; i++) {
+            step(world, spawnsPerStep);
+        }
+        return (TimeUtils.nanoTime() - start) / 1000000d / MEASURED_STEPS;
+    }
+
+    private static void step(World world, int spawnsPerStep) {
+        for (int i = 0; i < spawnsPerStep; i++) {
+            world.createEntity().edit()
+                    .add(new Pos(MathUtils.random(0f, 4000f), MathUtils.random(0f, 4000f)))
+                    .add(new Anim("particle", LAYERS[MathUtils.random(LAYERS.length - 1)]))
+                    .add(new Terminal(MathUtils.random(MIN_LIFETIME, MAX_LIFETIME)));
+        }
+        world.process();
+    }
+
+    /**
+     * The list and sort AnimRenderSystem used before buckets.
+     */
+    private static class SortedQueue extends EntitySystem {
+
+        private ComponentMapper<Pos> pm;
+        private ComponentMapper<Anim> sm;
+
+        private List<Entity> sortedEntities = new ArrayList<Entity>();
+        private boolean sortedDirty = false;
+
+        public Comparator<Entity> layerSortComperator = new Comparator<Entity>() {
+            @Override
+            public int compare(Entity e1, Entity e2) {
+                return sm.get(e1).layer.compareTo(sm.get(e2).layer);
+            }
+        };
+
+        public SortedQueue() {
+            super(Aspect.getAspectForAll(Pos.class, Anim.class));
+        }
+
+        @Override
+        protected void initialize() {
+            pm = world.getMapper(Pos.class);
+            sm = world.getMapper(Anim.class);
+        }
+
+        @Override
+        protected void processEntities(ImmutableBag<Entity> entities) {
+            if (sortedDirty) {
+                sortedDirty = false;
+                Collections.sort(sortedEntities, layerSortComperator);
+            }
+            float sum = 0;
+            for (Entity entity : sortedEntities) {
+                sum += pm.get(entity).x + sm.get(entity).layer.ordinal();
+            }
+            checksum += sum;
+        }
+
+        @Override
+        protected boolean checkProcessing() {
+            return true;
+        }
+
+        @Override
+        protected void inserted(Entity e) {
+            sortedEntities.add(e);
+            sortedDirty = true;
+        }
+
+        @Override
+        protected void removed(Entity e) {
+            sortedEntities.remove(e);
+        }
+    }
+
+    /**
+     * The buckets AnimRenderSystem uses now.
+     */
+    private static class BucketQueue extends EntitySystem {
+
+        private ComponentMapper<Pos> pm;
+        private ComponentMapper<Anim> sm;
+
+        private final LayerBuckets buckets = new LayerBuckets(LAYERS.length);
+
+        public BucketQueue() {
+            super(Aspect.getAspectForAll(Pos.class, Anim.class));
+        }
+
+        @Override
+        protected void initialize() {
+            pm = world.getMapper(Pos.class);
+            sm = world.getMapper(Anim.class);
+        }
+
+        @Override
+        protected void processEntities(ImmutableBag<Entity> entities) {
+            float sum = 0;
+            for (int layer = 0; layer < LAYERS.length; layer++) {
+                final ImmutableBag<Entity> bucket = buckets.get(layer);
+                for (int i = 0, s = bucket.size(); s > i; i++) {
+                    final Entity entity = bucket.get(i);
+                    sum += pm.get(entity).x + sm.get(entity).layer.ordinal();
+                }
+            }
+            checksum += sum;
+        }
+
+        @Override
+        protected boolean checkProcessing() {
+            return true;
+        }
+
+        @Override
+        protected void inserted(Entity e) {
+            buckets.add(e, sm.get(e).layer.ordinal());
+        }
+
+        @Override
+        protected void removed(Entity e) {
+            buckets.remove(e);
+        }
+    }
+}
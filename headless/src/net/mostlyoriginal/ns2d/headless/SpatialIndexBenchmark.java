@@ -0,0 +1,175 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.annotations.Wire;
+import com.artemis.managers.GroupManager;
+import com.artemis.utils.Bag;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.TimeUtils;
+import net.mostlyoriginal.ns2d.G;
+import net.mostlyoriginal.ns2d.component.Bounds;
+import net.mostlyoriginal.ns2d.component.Pos;
+import net.mostlyoriginal.ns2d.system.passive.CollisionSystem;
+import net.mostlyoriginal.ns2d.system.passive.SpatialIndexSystem;
+import net.mostlyoriginal.ns2d.util.SpatialHash;
+
+/**
+ * Time bullet versus enemy overlap tests per frame, every bullet against every enemy with
+ * {@link CollisionSystem#overlaps} as BulletCollisionSystem used to, against
+ * {@link SpatialIndexSystem#overlapping}.
+ * <p/>
+ * Enemies drift around a map sized area, so the index is rebuilt every frame like in game.
+ * Both report the first overlapping enemy per bullet, and must agree.
+ * Usage: SpatialIndexBenchmark [bullet counts...], defaults to 100 1000 10000, against 1000 enemies.
+ * Needs no display, natives or assets.
+ */
+public class SpatialIndexBenchmark {
+
+    public static final int ENEMIES = 1000;
+    public static final int MAP_TILES = 200;
+    public static final String GROUP = "enemy";
+    public static final int WARMUP_FRAMES = 50;
+    public static final int MEASURED_FRAMES = 100;
+
+    public static void main(String[] arg) {
+        final int[] counts = arg.length > 0 ? new int[arg.length] : new int[]{100, 1000, 10000};
+        for (int i = 0; i < arg.length; i++) {
+            counts[i] = Integer.parseInt(arg[i]);
+        }
+
+        System.out.println("bullets vs " + ENEMIES + " enemies, pairwise ms/frame, grid ms/frame, speedup, hits/frame");
+        for (int bullets : counts) {
+            final Field field = new Field(bullets);
+            final double pairwise = field.measure(false);
+            final double grid = field.measure(true);
+            if (field.hits[0] != field.hits[1] || field.checksums[0] != field.checksums[1]) {
+                throw new IllegalStateException("pairwise found " + field.hits[0] + " hits, grid " + field.hits[1]);
+            }
+            System.out.println(String.format("%d, %.3f, %.3f, %.1fx, %.1f",
+                    bullets, pairwise, grid, pairwise / grid, field.hits[0] / (float) MEASURED_FRAMES));
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Index covering a fixed area, instead of the loaded map's.
+     */
+    @Wire(injectInherited = true, failOnNull = false)
+    private static class FixedIndex extends SpatialIndexSystem {
+        @Override
+        public SpatialHash createIndex() {
+            final int cells = MAP_TILES * G.CELL_SIZE / CELL_SIZE + 1;
+            return new SpatialHash(CELL_SIZE, cells, cells);
+        }
+    }
+
+    private static class Field {
+
+        private final World world = new World();
+        private final GroupManager groupManager = world.setManager(new GroupManager());
+        private final CollisionSystem collisionSystem = world.setSystem(new CollisionSystem(), true);
+        private final SpatialIndexSystem spatialIndexSystem = world.setSystem(new FixedIndex());
+        private final Entity[] bullets;
+        private final Bag<Entity> victims = new Bag<Entity>();
+        private final float[] start = new float[ENEMIES * 2];
+
+        /** bullets that hit, and ids of their first victims summed, over measured frames. pairwise, grid. */
+        private final int[] hits = new int[2];
+        private final long[] checksums = new long[2];
+        private int seed;
+
+        Field(int count) {
+            world.initialize();
+            world.setDelta(1 / 60f);
+
+            MathUtils.random.setSeed(count);
+            final float size = MAP_TILES * G.CELL_SIZE;
+            for (int i = 0; i < ENEMIES; i++) {
+                final Entity enemy = world.createEntity().edit()
+                        .add(new Pos(MathUtils.random(size), MathUtils.random(size)))
+                        .add(new Bounds(32, 17)).getEntity();
+                groupManager.add(enemy, GROUP);
+            }
+            final ImmutableBag<Entity> enemies = groupManager.getEntities(GROUP);
+            for (int i = 0; i < ENEMIES; i++) {
+                final Pos pos = enemies.get(i).getComponent(Pos.class);
+                start[i * 2] = pos.x;
+                start[i * 2 + 1] = pos.y;
+            }
+            bullets = new Entity[count];
+            for (int i = 0; i < count; i++) {
+                bullets[i] = world.createEntity().edit()
+                        .add(new Pos(MathUtils.random(size), MathUtils.random(size)))
+                        .add(new Bounds(4, 4)).getEntity();
+            }
+            world.process();
+        }
+
+        /**
+         * @return average milliseconds per frame.
+         */
+        double measure(boolean grid) {
+            // same start and movement for both.
+            final ImmutableBag<Entity> enemies = groupManager.getEntities(GROUP);
+            for (int i = 0; i < ENEMIES; i++) {
+                final Pos pos = enemies.get(i).getComponent(Pos.class);
+                pos.x = start[i * 2];
+                pos.y = start[i * 2 + 1];
+            }
+            seed = 0;
+            final long[] ignored = new long[2];
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                frame(grid, ignored);
+            }
+            final int mode = grid ? 1 : 0;
+            hits[mode] = 0;
+            checksums[mode] = 0;
+            final long startedAt = TimeUtils.nanoTime();
+            for (int i = 0; i < MEASURED_FRAMES; i++) {
+                hits[mode] += frame(grid, checksums);
+            }
+            return (TimeUtils.nanoTime() - startedAt) / 1000000d / MEASURED_FRAMES;
+        }
+
+        /**
+         * @return bullets that hit an enemy.
+         */
+        private int frame(boolean grid, long[] checksums) {
+            MathUtils.random.setSeed(++seed);
+            final ImmutableBag<Entity> enemies = groupManager.getEntities(GROUP);
+            for (int i = 0, s = enemies.size(); s > i; i++) {
+                final Pos pos = enemies.get(i).getComponent(Pos.class);
+                pos.x += MathUtils.random(-4f, 4f);
+                pos.y += MathUtils.random(-4f, 4f);
+            }
+            // invalidates the index.
+            world.process();
+
+            int hit = 0;
+            for (Entity bullet : bullets) {
+                final Entity victim = grid ? grid(bullet) : pairwise(bullet, enemies);
+                if (victim != null) {
+                    hit++;
+                    checksums[grid ? 1 : 0] += victim.getId();
+                }
+            }
+            return hit;
+        }
+
+        private Entity grid(Entity bullet) {
+            return spatialIndexSystem.overlapping(GROUP, bullet, victims) > 0 ? victims.get(0) : null;
+        }
+
+        private Entity pairwise(Entity bullet, ImmutableBag<Entity> enemies) {
+            for (int i = 0, s = enemies.size(); s > i; i++) {
+                final Entity victim = enemies.get(i);
+                if (victim != null && collisionSystem.overlaps(bullet, victim)) {
+                    return victim;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.TimeUtils;
+import net.mostlyoriginal.ns2d.component.Anim;
+import net.mostlyoriginal.ns2d.util.SpriteRegistry;
+
+import java.util.HashMap;
+
+/**
+ * Compare looking up each animated entity's sprite by string every frame, as
+ * {@link net.mostlyoriginal.ns2d.system.render.AnimRenderSystem} did, against the
+ * handle the {@link SpriteRegistry} resolves once.
+ * <p/>
+ * Both walk the same Anims and pick the key frame to draw, minus the drawing.
+ * Usage: SpriteLookupBenchmark [entities], defaults to 10000. Needs no display, natives or assets.
+ */
+public class SpriteLookupBenchmark {
+
+    public static final int DEFAULT_ENTITIES = 10000;
+    public static final float FRAME = 1 / 60f;
+    public static final int WARMUP_FRAMES = 2000;
+    public static final int MEASURED_FRAMES = 2000;
+
+    /** as registered by {@link net.mostlyoriginal.ns2d.system.passive.AssetSystem}. */
+    private static final String[] IDS = {
+            "player-idle", "player-jetpack", "player-walk", "player-respawning",
+            "spawner", "resourcetower", "armory", "spawner-unbuilt", "resourcetower-unbuilt", "armory-unbuilt",
+            "techpoint", "duct", "duct-hot",
+            "skulk", "skulk-head", "gorge", "gorge-head", "gorge-spit", "bile-droplet", "babbler",
+            "debug-marker", "alert-arrow", "alert-skulk", "alert-radar", "alert-damage",
+            "particle-alienblood", "techpoint-alert", "resource",
+            "bullet", "slug", "grenade", "flames", "health-tick",
+            "particle-explosion", "particle-muzzleflare", "particle-bulletcasing", "particle-shellcasing",
+            "particle-debris", "particle-jetpack", "particle-puff",
+            "speech-bubble-left", "speech-bubble-middle", "speech-bubble-right",
+            "sentry-frame", "sentry-frame-unbuilt", "sentry", "sentry-unbuilt",
+            "sentry2-frame", "sentry2-frame-unbuilt", "sentry2", "sentry2-unbuilt",
+            "rifle", "shotgun", "grenadelauncher", "flamethrower",
+    };
+
+    private static final HashMap<String, Animation> byString = new HashMap<String, Animation>();
+    private static final SpriteRegistry registry = new SpriteRegistry();
+
+    private static int checksum;
+
+    public static void main(String[] arg) {
+        final int entities = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_ENTITIES;
+
+        for (int i = 0; i < IDS.length; i++) {
+            final TextureRegion[] frames = new TextureRegion[1 + i % 4];
+            for (int f = 0; f < frames.length; f++) {
+                frames[f] = new TextureRegion();
+            }
+            final Animation animation = new Animation(0.5f, frames);
+            byString.put(IDS[i], animation);
+            registry.register(IDS[i], animation);
+        }
+
+        MathUtils.random.setSeed(entities);
+        final Anim[] anims = new Anim[entities];
+        for (int i = 0; i < entities; i++) {
+            anims[i] = new Anim(IDS[MathUtils.random(IDS.length - 1)]);
+            anims[i].age = MathUtils.random(10f);
+        }
+
+        final double strings = measure(anims, false);
+        final double handles = measure(anims, true);
+
+        System.out.println(entities + " animated entities, " + IDS.length + " sprites (checksum " + checksum + ")");
+        System.out.println(String.format("string lookup: %.3f ms per frame, %.1f ns per entity", strings, strings * 1000000 / entities));
+        System.out.println(String.format("int handle:    %.3f ms per frame, %.1f ns per entity", handles, handles * 1000000 / entities));
+        System.exit(0);
+    }
+
+    /**
+     * @return average milliseconds per frame.
+     */
+    private static double measure(Anim[] anims, boolean handles) {
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            frame(anims, handles);
+        }
+        final long start = TimeUtils.nanoTime();
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            frame(anims, handles);
+        }
+        return (TimeUtils.nanoTime() - start) / 1000000d / MEASURED_FRAMES;
+    }
+
+    private static void frame(Anim[] anims, boolean handles) {
+        int sum = 0;
+        final Animation[] animations = registry.animations;
+        for (Anim anim : anims) {
+            anim.age += FRAME * anim.speed;
+
+            final Animation animation;
+            if (handles) {
+                // what AssetSystem.resolve(Anim) does.
+                if (anim.spriteId != anim.id) {
+                    anim.sprite = registry.resolve(anim.id);
+                    anim.spriteId = anim.id;
+                }
+                if (anim.sprite == SpriteRegistry.NONE) continue;
+                animation = animations[anim.sprite];
+            } else {
+                animation = byString.get(anim.id);
+                if (animation == null) continue;
+            }
+            if (animation.getKeyFrame(anim.age, true) == animation.getKeyFrames()[0]) sum++;
+        }
+        checksum += sum;
+    }
+}
@@ -0,0 +1,165 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/**
+ * No-op implementations of libGDX interfaces, for running without a display or sound device.
+ * <p/>
+ * Every call succeeds and returns a default value. GL object names are handed out
+ * in sequence and shaders always report compiled and linked, so assets load as usual.
+ * {@link #texture()} makes textures without pixels, for their identity, {@link #window} gives
+ * graphics a size.
+ */
+public class Stubs implements InvocationHandler {
+
+    private final Class<?> type;
+    private int nextName = 1;
+
+    private Stubs(Class<?> type) {
+        this.type = type;
+    }
+
+    public static <T> T of(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new Stubs(type)));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        final String name = method.getName();
+        final Class<?> returnType = method.getReturnType();
+
+        if (method.getDeclaringClass() == Object.class) {
+            if (name.equals("equals")) return proxy == args[0];
+            if (name.equals("hashCode")) return System.identityHashCode(proxy);
+            return "Stub " + type.getSimpleName();
+        }
+
+        final Object last = args != null && args.length > 0 ? args[args.length - 1] : null;
+
+        if (name.startsWith("glGen") || name.startsWith("glCreate")) {
+            if (last instanceof IntBuffer) {
+                final IntBuffer names = (IntBuffer) last;
+                for (int i = names.position(); i < names.limit(); i++) {
+                    names.put(i, nextName++);
+                }
+            }
+            if (returnType == int.class) return nextName++;
+        }
+
+        if (name.startsWith("glGet") && last instanceof IntBuffer && args.length >= 2 && args[args.length - 2] instanceof Integer) {
+            // queries always write, shader programs reuse their buffer between calls.
+            final int pname = (Integer) args[args.length - 2];
+            final IntBuffer params = (IntBuffer) last;
+            params.put(params.position(), pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS ? GL20.GL_TRUE : 0);
+        }
+
+        return defaultValue(returnType);
+    }
+
+    private static Object defaultValue(Class<?> returnType) {
+        if (returnType == void.class) return null;
+        if (returnType == boolean.class) return false;
+        if (returnType == int.class) return 0;
+        if (returnType == long.class) return 0L;
+        if (returnType == float.class) return 0f;
+        if (returnType == double.class) return 0d;
+        if (returnType == short.class) return (short) 0;
+        if (returnType == byte.class) return (byte) 0;
+        if (returnType == char.class) return (char) 0;
+        if (returnType == String.class) return "";
+        if (returnType.isInterface()) return of(returnType);
+        return null;
+    }
+
+    /**
+     * @return graphics reporting a window of width by height, otherwise passing calls on.
+     */
+    public static Graphics window(final Graphics graphics, int width, int height) {
+        // boxed once, so asking for the size doesn't allocate.
+        final Integer boxedWidth = width;
+        final Integer boxedHeight = height;
+        return (Graphics) Proxy.newProxyInstance(Graphics.class.getClassLoader(), new Class<?>[]{Graphics.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                final String name = method.getName();
+                if (name.equals("getWidth")) return boxedWidth;
+                if (name.equals("getHeight")) return boxedHeight;
+                try {
+                    return method.invoke(graphics, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return texture without pixels, to draw into batch stand-ins. Needs a stubbed Gdx.gl.
+     */
+    public static Texture texture() {
+        return new Texture(new TextureData() {
+            @Override
+            public TextureDataType getType() {
+                return TextureDataType.Custom;
+            }
+
+            @Override
+            public boolean isPrepared() {
+                return true;
+            }
+
+            @Override
+            public void prepare() {
+            }
+
+            @Override
+            public Pixmap consumePixmap() {
+                return null;
+            }
+
+            @Override
+            public boolean disposePixmap() {
+                return false;
+            }
+
+            @Override
+            public void consumeCustomData(int target) {
+            }
+
+            @Override
+            public int getWidth() {
+                return 512;
+            }
+
+            @Override
+            public int getHeight() {
+                return 512;
+            }
+
+            @Override
+            public Pixmap.Format getFormat() {
+                return Pixmap.Format.RGBA8888;
+            }
+
+            @Override
+            public boolean useMipMaps() {
+                return false;
+            }
+
+            @Override
+            public boolean isManaged() {
+                return false;
+            }
+        });
+    }
+}
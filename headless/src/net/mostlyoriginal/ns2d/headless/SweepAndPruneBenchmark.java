@@ -0,0 +1,141 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.managers.GroupManager;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.TimeUtils;
+import net.mostlyoriginal.ns2d.G;
+import net.mostlyoriginal.ns2d.api.DualEntityProcessSystem;
+import net.mostlyoriginal.ns2d.component.Bounds;
+import net.mostlyoriginal.ns2d.component.Pos;
+import net.mostlyoriginal.ns2d.system.passive.CollisionSystem;
+
+/**
+ * Count pairs {@link DualEntityProcessSystem} tests per frame, the full nested loop against
+ * sweep and prune, for bullets against enemies.
+ * <p/>
+ * Enemies drift around a map sized area, so the sort order changes every frame like in game.
+ * Both modes start from the same seed and must find the same overlapping pairs.
+ * Usage: SweepAndPruneBenchmark [bullet counts...], defaults to 100 1000 5000, against 1000 enemies.
+ * Needs no display, natives or assets.
+ */
+public class SweepAndPruneBenchmark {
+
+    public static final int ENEMIES = 1000;
+    public static final int MAP_TILES = 200;
+    public static final int WARMUP_FRAMES = 20;
+    public static final int MEASURED_FRAMES = 50;
+
+    public static void main(String[] arg) {
+        final int[] counts = arg.length > 0 ? new int[arg.length] : new int[]{100, 1000, 5000};
+        for (int i = 0; i < arg.length; i++) {
+            counts[i] = Integer.parseInt(arg[i]);
+        }
+
+        System.out.println("bullets vs " + ENEMIES + " enemies, nested pairs/frame, nested ms/frame, sweep pairs/frame, sweep ms/frame, pairs skipped, hits/frame");
+        for (int bullets : counts) {
+            final Field nested = new Field(bullets, false);
+            final Field sweep = new Field(bullets, true);
+            final double nestedMs = nested.measure();
+            final double sweepMs = sweep.measure();
+            if (nested.tested != sweep.total) {
+                throw new IllegalStateException("nested loop tested " + nested.tested + " pairs, out of " + sweep.total);
+            }
+            if (nested.hits.hits != sweep.hits.hits || nested.hits.checksum != sweep.hits.checksum) {
+                throw new IllegalStateException("nested loop found " + nested.hits.hits + " hits, sweep and prune " + sweep.hits.hits);
+            }
+            System.out.println(String.format("%d, %d, %.3f, %d, %.3f, %.1f%%, %.1f",
+                    bullets, nested.tested / MEASURED_FRAMES, nestedMs, sweep.tested / MEASURED_FRAMES, sweepMs,
+                    100f - 100f * sweep.tested / nested.tested, nested.hits.hits / (float) MEASURED_FRAMES));
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Counts overlapping pairs, and sums their ids so both modes can be compared.
+     */
+    private static class Hits extends DualEntityProcessSystem {
+
+        private final CollisionSystem collisionSystem;
+        private int hits;
+        private long checksum;
+
+        Hits(CollisionSystem collisionSystem, boolean sweepAndPrune) {
+            super("bullet", "enemy", sweepAndPrune);
+            this.collisionSystem = collisionSystem;
+        }
+
+        @Override
+        protected void processEntity(Entity bullet, Entity enemy) {
+            if (collisionSystem.overlaps(bullet, enemy)) {
+                hits++;
+                checksum += bullet.getId() * 31L + enemy.getId();
+            }
+        }
+    }
+
+    private static class Field {
+
+        private final World world = new World();
+        private final GroupManager groupManager = world.setManager(new GroupManager());
+        private final CollisionSystem collisionSystem = world.setSystem(new CollisionSystem(), true);
+        private final Hits hits;
+
+        /** pairs tested, and pairs a full nested loop would have tested, over measured frames. */
+        private long tested;
+        private long total;
+        private int seed;
+
+        Field(int count, boolean sweepAndPrune) {
+            hits = world.setSystem(new Hits(collisionSystem, sweepAndPrune));
+            world.initialize();
+            world.setDelta(1 / 60f);
+
+            MathUtils.random.setSeed(count);
+            final float size = MAP_TILES * G.CELL_SIZE;
+            for (int i = 0; i < ENEMIES; i++) {
+                groupManager.add(world.createEntity().edit()
+                        .add(new Pos(MathUtils.random(size), MathUtils.random(size)))
+                        .add(new Bounds(32, 17)).getEntity(), "enemy");
+            }
+            for (int i = 0; i < count; i++) {
+                groupManager.add(world.createEntity().edit()
+                        .add(new Pos(MathUtils.random(size), MathUtils.random(size)))
+                        .add(new Bounds(4, 4)).getEntity(), "bullet");
+            }
+        }
+
+        /**
+         * @return average milliseconds per frame.
+         */
+        double measure() {
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                frame();
+            }
+            hits.hits = 0;
+            hits.checksum = 0;
+            tested = 0;
+            total = 0;
+            final long startedAt = TimeUtils.nanoTime();
+            for (int i = 0; i < MEASURED_FRAMES; i++) {
+                frame();
+                tested += hits.pairsTested;
+                total += hits.pairsTotal;
+            }
+            return (TimeUtils.nanoTime() - startedAt) / 1000000d / MEASURED_FRAMES;
+        }
+
+        private void frame() {
+            MathUtils.random.setSeed(++seed);
+            final ImmutableBag<Entity> enemies = groupManager.getEntities("enemy");
+            for (int i = 0, s = enemies.size(); s > i; i++) {
+                final Pos pos = enemies.get(i).getComponent(Pos.class);
+                pos.x += MathUtils.random(-4f, 4f);
+                pos.y += MathUtils.random(-4f, 4f);
+            }
+            world.process();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package net.mostlyoriginal.ns2d.headless;
+
+import com.artemis.Entity;
+import com.artemis.EntitySystem;
+import com.artemis.managers.TagManager;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.utils.TimeUtils;
+import net.mostlyoriginal.ns2d.G;
+import net.mostlyoriginal.ns2d.MainScreen;
+import net.mostlyoriginal.ns2d.component.Health;
+import net.mostlyoriginal.ns2d.component.Wallet;
+import net.mostlyoriginal.ns2d.system.passive.RenderPipelineSystem;
+import net.mostlyoriginal.ns2d.system.render.*;
+
+/**
+ * Count bytes allocated per frame by the game's text, drawing the first stage with the real
+ * text render systems into {@link CountingBatch}es. Fails when a steady frame allocates.
+ * <p/>
+ * Every frame the stopwatch ticks and resources change, health drops every second, and a new
+ * message is said once the last one had time to show, so labels are laid out again as in play.
+ * Price tags are drawn over the stage's unbuilt structures.
+ * Usage: TextAllocationBenchmark [frames], defaults to 20000, from the assets directory.
+ * Exits with 1 if the measured frames allocated.
+ */
+public class TextAllocationBenchmark extends ApplicationAdapter {
+
+    public static final int DEFAULT_FRAMES = 20000;
+    public static final float FRAME = 1 / 60f;
+    /** long enough for messages, said only every few seconds, to be fully compiled too. */
+    public static final int WARMUP_FRAMES = 100000;
+    /** steps before drawing, so the map has spawned and the stage started. */
+    public static final int SETUP_STEPS = 60;
+    /** longer than the dialog shows a message for, so the queue doesn't grow. */
+    public static final int MESSAGE_FRAMES = 300;
+
+    private final int frames;
+
+    public TextAllocationBenchmark(int frames) {
+        this.frames = frames;
+    }
+
+    public static void main(String[] arg) {
+        new HeadlessApplication(new TextAllocationBenchmark(arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_FRAMES));
+    }
+
+    @Override
+    public void create() {
+        HeadlessSimulation.stubDevices();
+        final MainScreen screen = HeadlessSimulation.newScreen();
+        for (int i = 0; i < SETUP_STEPS; i++) {
+            screen.simulate(MainScreen.SIM_STEP);
+        }
+
+        final EntitySystem[] systems = {
+                G.world.getSystem(CostRenderSystem.class),
+                G.world.getSystem(DialogRenderSystem.class),
+                G.world.getSystem(UIRenderSystem.class),
+                G.world.getSystem(UIStageRenderSystem.class),
+                G.world.getSystem(UIStopwatchRenderSytem.class)
+        };
+        final RenderPipelineSystem pipeline = G.world.getSystem(RenderPipelineSystem.class);
+        final CountingBatch world = (CountingBatch) pipeline.getBatch(RenderPipelineSystem.Pass.WORLD);
+        final CountingBatch gui = (CountingBatch) pipeline.getBatch(RenderPipelineSystem.Pass.GUI);
+
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            frame(systems, pipeline, i);
+        }
+        final int sprites = world.sprites + gui.sprites;
+        final AllocationMeter allocations = new AllocationMeter();
+        final long start = TimeUtils.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            frame(systems, pipeline, WARMUP_FRAMES + i);
+        }
+        final double ms = (TimeUtils.nanoTime() - start) / 1000000d / frames;
+        final long bytes = allocations.allocated();
+
+        System.out.println(String.format("%d frames, %.1f glyphs and sprites per frame, %.4f ms per frame",
+                frames, (world.sprites + gui.sprites - sprites) / (float) frames, ms));
+        System.out.println(String.format("%d bytes allocated, %.1f per frame", bytes, bytes / (float) frames));
+        if (bytes != 0) {
+            System.out.println(bytes < 0 ? "can't count allocations on this JVM" : "text allocates in steady state");
+            System.exit(1);
+        }
+        Gdx.app.exit();
+    }
+
+    private void frame(EntitySystem[] systems, RenderPipelineSystem pipeline, int frame) {
+        final Entity player = G.world.getManager(TagManager.class).getEntity("player");
+        player.getComponent(Wallet.class).resources = frame % 150;
+        final Health health = player.getComponent(Health.class);
+        if (health != null) {
+            health.damage = (frame / 60) % health.health;
+        }
+        final DialogRenderSystem dialog = (DialogRenderSystem) systems[1];
+        if (frame % MESSAGE_FRAMES == 0) {
+            dialog.randomSay(DialogRenderSystem.WEAPON_READY_MESSAGES);
+        }
+
+        G.world.setDelta(FRAME);
+        for (EntitySystem system : systems) {
+            system.process();
+        }
+        pipeline.endFrame();
+    }
+}